@@ -1,5 +1,6 @@
 package com.example.bankcards.config;
 
+import com.example.bankcards.util.AesGcmStringEncryptor;
 import lombok.RequiredArgsConstructor;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.jasypt.encryption.StringEncryptor;
@@ -11,6 +12,10 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 
 /**
  * Конфигурация шифратора номеров карт
+ * <p>
+ * Режим {@code encryption.mode}: {@code aes-gcm} - AES-GCM с ключом, выведенным один раз при старте,
+ * с расшифровкой прежних значений через PBE; {@code pbe} - только прежний PBE-шифратор Jasypt.
+ * </p>
  *
  * @author Andrei Bronskijj, 2025
  * @version 0.0.1
@@ -23,8 +28,24 @@ public class EncryptorConfig {
     @Value("${encryption.secret.key}")
     private String secretKey;
 
+    @Value("${encryption.mode}")
+    private String mode;
+
     @Bean
     public StringEncryptor stringEncryptor() {
+        return switch (mode) {
+            case "aes-gcm" -> new AesGcmStringEncryptor(secretKey, pbeEncryptor());
+            case "pbe" -> pbeEncryptor();
+            default -> throw new IllegalStateException("Неизвестный режим шифрования: " + mode);
+        };
+    }
+
+    /**
+     * Прежний шифратор Jasypt, выводящий ключ из пароля при каждой операции
+     *
+     * @return шифратор
+     */
+    private StringEncryptor pbeEncryptor() {
         PooledPBEStringEncryptor encryptor = new PooledPBEStringEncryptor();
         encryptor.setProvider(new BouncyCastleProvider());
         encryptor.setPoolSize(4);
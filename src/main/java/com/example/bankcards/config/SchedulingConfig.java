@@ -0,0 +1,15 @@
+package com.example.bankcards.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Конфигурация фоновых задач
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,22 +1,55 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardIssueRequest;
+import com.example.bankcards.dto.CardIssueResult;
+import com.example.bankcards.dto.CardLookupDto;
+import com.example.bankcards.dto.CardSearchDto;
+import com.example.bankcards.dto.CardSliceDto;
+import com.example.bankcards.dto.CardStatusChangeDto;
+import com.example.bankcards.dto.CardStatusChangeResult;
 import com.example.bankcards.dto.CardUpdateDto;
 import com.example.bankcards.dto.UserDto;
+import com.example.bankcards.exception.MyIllegalArgumentException;
+import com.example.bankcards.service.CardIssueService;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.CardStatusChangeService;
 import com.example.bankcards.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Контроллер администратора банка
@@ -30,8 +63,16 @@ import java.util.UUID;
 @Tag(name = "Функции администратора")
 public class AdminController {
 
+    private static final String CSV_VALUE = "text/csv";
+    private static final String CSV_HEADER = "userId";
+    private static final String MERGE_PATCH_VALUE = "application/merge-patch+json";
+
     private final CardService cardService;
     private final UserService userService;
+    private final CardIssueService cardIssueService;
+    private final CardStatusChangeService cardStatusChangeService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @Operation(summary = "Просмотр всех карт")
     @ApiResponses(value = {
@@ -44,6 +85,77 @@ public class AdminController {
         return cardService.findAll();
     }
 
+    @Operation(summary = "Потоковая выгрузка всех карт в формате NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content())
+    })
+    @GetMapping(value = "cards", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportCards(HttpServletResponse response) throws IOException {
+        writeNdjson(response, CardDto.class, cardService::exportAll);
+    }
+
+    @Operation(summary = "Пакетный выпуск карт из JSON-массива строк с результатом по каждой строке в формате NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content())
+    })
+    @PostMapping(value = "cards/bulk", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void issueCards(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class)
+                .readValues(request.getInputStream())) {
+            // элементы преобразуются по одному, чтобы элемент неверного типа отклонялся, а не обрывал ответ
+            Iterator<CardIssueRequest> rows = StreamSupport
+                    .stream(Spliterators.spliteratorUnknownSize(nodes, Spliterator.ORDERED), false)
+                    .map(this::toIssueRequest)
+                    .iterator();
+            writeNdjson(response, CardIssueResult.class, sink -> cardIssueService.issue(rows, sink));
+        }
+    }
+
+    @Operation(summary = "Пакетный выпуск карт из CSV со строками userId,count с результатом по каждой строке в формате NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content())
+    })
+    @PostMapping(value = "cards/bulk", consumes = CSV_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void issueCardsFromCsv(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (Stream<String> lines = request.getReader().lines()) {
+            Iterator<CardIssueRequest> rows = lines
+                    .filter(line -> !line.isBlank() && !line.startsWith(CSV_HEADER))
+                    .map(CardIssueRequest::fromCsv)
+                    .iterator();
+            writeNdjson(response, CardIssueResult.class, sink -> cardIssueService.issue(rows, sink));
+        }
+    }
+
+    @Operation(summary = "Поиск карт по статусу, владельцу, сроку действия и балансу с постраничным выводом по курсору")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content()),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content())
+    })
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("cards/search")
+    public CardSliceDto searchCards(@ParameterObject CardSearchDto filter,
+                                    @RequestParam(required = false, name = "cursor") String cursor,
+                                    @RequestParam(defaultValue = "20", name = "size") int size) {
+        return cardService.search(filter, cursor, size);
+    }
+
+    @Operation(summary = "Массовая смена статуса карт по списку идентификаторов или условиям выборки")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content()),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content())
+    })
+    @ResponseStatus(HttpStatus.OK)
+    @PatchMapping("cards/status")
+    public CardStatusChangeResult changeStatus(@Valid @RequestBody CardStatusChangeDto change) {
+        return cardStatusChangeService.changeStatus(change);
+    }
+
     @Operation(summary = "Получение карты по id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK"),
@@ -56,9 +168,23 @@ public class AdminController {
         return cardService.findById(UUID.fromString(id));
     }
 
-    @Operation(summary = "Удаление карты")
+    @Operation(summary = "Поиск карты по номеру")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content()),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content()),
+            @ApiResponse(responseCode = "404", description = "Not found", content = @Content())
+    })
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping("cards/lookup")
+    public CardDto findCardByNumber(@Valid @RequestBody CardLookupDto lookup) {
+        return cardService.findByCardNumber(lookup.getCardNumber());
+    }
+
+    @Operation(summary = "Удаление карты", description = "Карту с историей операций удалить нельзя, её можно заблокировать")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "No content"),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content()),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "404", description = "Not found")
     })
@@ -81,14 +207,15 @@ public class AdminController {
 
     @Operation(summary = "Смена статуса карты")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "204", description = "No content"),
             @ApiResponse(responseCode = "400", description = "Bad request", content = @Content()),
-            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content())
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content()),
+            @ApiResponse(responseCode = "404", description = "Not found", content = @Content())
     })
-    @ResponseStatus(HttpStatus.OK)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
     @PatchMapping({"{id}"})
-    public CardDto setStatus(@PathVariable String id, @RequestParam(name = "status") @Valid String status) {
-        return cardService.setStatus(id, status);
+    public void setStatus(@PathVariable String id, @RequestParam(name = "status") @Valid String status) {
+        cardService.setStatus(id, status);
     }
 
     @Operation(summary = "Смена данных карты")
@@ -102,6 +229,27 @@ public class AdminController {
         return cardService.update(card);
     }
 
+    @Operation(summary = "Частичное изменение данных карты (JSON Merge Patch)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content()),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content()),
+            @ApiResponse(responseCode = "404", description = "Not found", content = @Content())
+    })
+    @ResponseStatus(HttpStatus.OK)
+    @PatchMapping(value = "cards/{id}", consumes = MERGE_PATCH_VALUE)
+    public CardDto patchCard(@PathVariable(name = "id") UUID id, @RequestBody JsonNode patch) {
+        if (!patch.isObject()) {
+            throw new MyIllegalArgumentException("Патч должен быть JSON-объектом");
+        }
+        patch.properties().forEach(field -> {
+            if (field.getValue().isNull()) {
+                throw new MyIllegalArgumentException("Поле карты не может быть удалено: " + field.getKey());
+            }
+        });
+        return cardService.patch(id, current -> mergePatch(current, patch));
+    }
+
     @Operation(summary = "Блокировка пользователя")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK"),
@@ -125,9 +273,11 @@ public class AdminController {
         return userService.updateUser(user);
     }
 
-    @Operation(summary = "Удаление пользователя")
+    @Operation(summary = "Удаление пользователя",
+            description = "Пользователя с историей операций по картам удалить нельзя, его можно заблокировать")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "No content"),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content()),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "404", description = "Not found")
     })
@@ -159,4 +309,68 @@ public class AdminController {
     public UserDto getUser(@PathVariable long id) {
         return userService.getUserById(id);
     }
+
+    /**
+     * Применяет патч к текущим данным карты и проверяет результат
+     *
+     * @param current текущие данные карты
+     * @param patch   JSON-объект с изменяемыми полями
+     * @return данные карты после применения патча
+     * @throws MyIllegalArgumentException если патч содержит поле, которого нет у карты,
+     *                                    или результат не проходит валидацию
+     */
+    private CardUpdateDto mergePatch(CardUpdateDto current, JsonNode patch) {
+        CardUpdateDto patched;
+        try {
+            patched = objectMapper.readerForUpdating(current)
+                    .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(patch);
+        } catch (UnrecognizedPropertyException e) {
+            throw new MyIllegalArgumentException("Неизвестное поле карты: " + e.getPropertyName());
+        } catch (IOException e) {
+            throw new MyIllegalArgumentException("Неверный формат данных");
+        }
+        if (!validator.validate(patched).isEmpty()) {
+            throw new MyIllegalArgumentException("Неверный формат данных");
+        }
+        return patched;
+    }
+
+    /**
+     * Преобразует элемент JSON-массива пакета в строку пакета
+     *
+     * @param node элемент массива
+     * @return строка пакета или некорректная строка, если элемент не соответствует формату
+     */
+    private CardIssueRequest toIssueRequest(JsonNode node) {
+        try {
+            return objectMapper.treeToValue(node, CardIssueRequest.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return CardIssueRequest.malformed();
+        }
+    }
+
+    /**
+     * Пишет в ответ объекты, отдаваемые производителем, по одному в строке
+     *
+     * @param response ответ
+     * @param type     тип объектов
+     * @param producer производитель, передающий объекты получателю по мере готовности
+     */
+    private <T> void writeNdjson(HttpServletResponse response, Class<T> type, Consumer<Consumer<T>> producer)
+            throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        ObjectWriter writer = objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            producer.accept(value -> {
+                try {
+                    writer.writeValue(generator, value);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
 }
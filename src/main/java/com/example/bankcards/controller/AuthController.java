@@ -2,6 +2,7 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.JwtAuthenticationResponse;
 import com.example.bankcards.dto.Login;
+import com.example.bankcards.dto.RefreshTokenRequest;
 import com.example.bankcards.dto.Register;
 import com.example.bankcards.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -35,7 +36,8 @@ public class AuthController {
     @Tag(name = "Аутентификация")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK"),
-            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content())
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content()),
+            @ApiResponse(responseCode = "429", description = "Too Many Requests", content = @Content())
     })
     @ResponseStatus(HttpStatus.OK)
     @PostMapping("/login")
@@ -45,11 +47,27 @@ public class AuthController {
         return authService.login(login.getUsername(), login.getPassword());
     }
 
+    @Operation(summary = "Обновление токена доступа")
+    @Tag(name = "Аутентификация")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content()),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content())
+    })
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping("/login/refresh")
+    public JwtAuthenticationResponse refresh(@Valid @RequestBody RefreshTokenRequest request) {
+
+        log.info("Controller method's for refreshing user's token");
+        return authService.refresh(request.getRefreshToken());
+    }
+
     @Operation(summary = "Регистрация пользователя")
     @Tag(name = "Регистрация")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Created"),
-            @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content())
+            @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content()),
+            @ApiResponse(responseCode = "429", description = "Too Many Requests", content = @Content())
     })
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping("/register")
@@ -1,7 +1,13 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardSliceDto;
+import com.example.bankcards.dto.TransferLeg;
+import com.example.bankcards.dto.TransferResult;
+import com.example.bankcards.entity.SecurityUser;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.IdempotencyService;
+import com.example.bankcards.service.TransferBatchService;
 import com.example.bankcards.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -17,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -31,8 +38,13 @@ import java.util.UUID;
 @Tag(name = "Функции пользователя")
 public class ClientController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final UserService userService;
     private final CardService cardService;
+    private final TransferBatchService transferBatchService;
+    private final IdempotencyService idempotencyService;
 
     @Operation(summary = "Просмотр всех карт текущего пользователя")
     @ApiResponses(value = {
@@ -50,12 +62,27 @@ public class ClientController {
         if (authentication == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        long userId = userService.getUserByUsername(authentication.getName()).getId();
-
-        response = cardService.findByOwnerId(userId, page, size);
+        response = cardService.findByOwnerId(currentUserId(authentication), page, size);
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Просмотр карт текущего пользователя постранично по курсору")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content()),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content()),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content())
+    })
+    @GetMapping("cards")
+    public ResponseEntity<CardSliceDto> getCardsByUserAfter(Authentication authentication,
+                                                            @RequestParam(required = false, name = "cursor") String cursor,
+                                                            @RequestParam(defaultValue = "20", name = "size") int size) {
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(cardService.findByOwnerIdAfter(currentUserId(authentication), cursor, size));
+    }
+
     @Operation(summary = "Перевод денег между картами пользователя")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK"),
@@ -65,13 +92,36 @@ public class ClientController {
     @ResponseStatus(HttpStatus.OK)
     @Transactional
     @PostMapping("transfer")
-  
-    public void transferMany(@RequestParam(name = "cardId1") String cardId1,
-                             @RequestParam(name = "cardId2") String cardId2,
-                             double amount) {
-        cardService.transferMoney(cardId1, cardId2, BigDecimal.valueOf(amount));
+    public ResponseEntity<Void> transferMany(@RequestParam(name = "cardId1") String cardId1,
+                                             @RequestParam(name = "cardId2") String cardId2,
+                                             @RequestParam(name = "amount") double amount,
+                                             @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false)
+                                             String idempotencyKey,
+                                             Authentication authentication) {
+        BigDecimal sum = BigDecimal.valueOf(amount);
+        Runnable transfer = () -> cardService.transferMoney(cardId1, cardId2, sum);
+        if (idempotencyKey == null) {
+            transfer.run();
+            return ResponseEntity.ok().build();
+        }
+        String fingerprint = String.join(":", cardId1, cardId2, sum.toPlainString());
+        if (!idempotencyService.executeOnce(authentication.getName(), idempotencyKey, fingerprint, transfer)) {
+            return ResponseEntity.ok().header(IDEMPOTENT_REPLAYED_HEADER, "true").build();
+        }
+        return ResponseEntity.ok().build();
     }
 
+    @Operation(summary = "Пакетный перевод денег между картами")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content()),
+            @ApiResponse(responseCode = "403", description = "Forbidden", content = @Content())
+    })
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping("transfer/batch")
+    public List<TransferResult> transferBatch(@RequestBody List<TransferLeg> legs, Authentication authentication) {
+        return transferBatchService.transfer(currentUserId(authentication), legs);
+    }
 
     @Operation(summary = "Просмотр баланса карты")
     @ApiResponses(value = {
@@ -101,4 +151,16 @@ public class ClientController {
         String s = userService.blockingRequest(id, authentication.getName());
         return ResponseEntity.ok(s);
     }
+
+    /**
+     * Идентификатор текущего пользователя: из токена, а если его там нет - из базы
+     *
+     * @param authentication данные аутентификации
+     * @return идентификатор пользователя
+     */
+    private long currentUserId(Authentication authentication) {
+        return authentication.getPrincipal() instanceof SecurityUser securityUser && securityUser.user().getId() != null
+                ? securityUser.user().getId()
+                : userService.getUserByUsername(authentication.getName()).getId();
+    }
 }
@@ -4,6 +4,7 @@ import com.example.bankcards.dto.BankError;
 import com.example.bankcards.exception.*;
 import io.swagger.v3.oas.annotations.Hidden;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -39,12 +40,24 @@ public class ExceptionControllerAdvice {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(bankError);
     }
 
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<BankError> handleInvalidRefreshTokenException(@NotNull InvalidRefreshTokenException e) {
+        BankError bankError = new BankError("401", e.getMessage());
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(bankError);
+    }
+
     @ExceptionHandler(UserAlreadyExistException.class)
     public ResponseEntity<BankError> handleUserAlreadyExistException(@NotNull UserAlreadyExistException e) {
         BankError bankError = new BankError("400", e.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(bankError);
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<BankError> handleTooManyRequestsException(@NotNull TooManyRequestsException e) {
+        BankError bankError = new BankError("429", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(bankError);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<BankError> handleMethodArgumentNotValidException() {
         BankError bankError = new BankError("400", "Неверный формат данных");
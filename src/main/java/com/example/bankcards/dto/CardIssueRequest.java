@@ -0,0 +1,61 @@
+package com.example.bankcards.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO строки пакетного выпуска карт.
+ *
+ * @author Andrei Bronskijj
+ * @version 0.0.1
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Выпуск карт одному владельцу в составе пакета")
+public class CardIssueRequest {
+
+    @Schema(description = "идентификатор владельца")
+    private Long userId;
+    @Schema(description = "количество выпускаемых карт", minimum = "1")
+    private int count;
+    @JsonIgnore
+    @Schema(hidden = true)
+    private boolean malformed;
+
+    public CardIssueRequest(Long userId, int count) {
+        this(userId, count, false);
+    }
+
+    /**
+     * Строка пакета, которую не удалось разобрать
+     * <p>
+     * Некорректная строка не прерывает пакет: она отклоняется при выпуске с результатом по этой строке.
+     *
+     * @return запрос, отклоняемый при выпуске
+     */
+    public static CardIssueRequest malformed() {
+        return new CardIssueRequest(null, 0, true);
+    }
+
+    /**
+     * Разбирает строку CSV вида {@code userId,count}
+     *
+     * @param line строка CSV
+     * @return запрос на выпуск
+     */
+    public static CardIssueRequest fromCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 2) {
+            return malformed();
+        }
+        try {
+            return new CardIssueRequest(Long.valueOf(fields[0].trim()), Integer.parseInt(fields[1].trim()));
+        } catch (NumberFormatException e) {
+            return malformed();
+        }
+    }
+}
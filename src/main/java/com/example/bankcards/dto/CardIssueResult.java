@@ -0,0 +1,42 @@
+package com.example.bankcards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO с результатом выпуска карт по строке пакета.
+ *
+ * @author Andrei Bronskijj
+ * @version 0.0.1
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Результат выпуска карт по строке пакета")
+public class CardIssueResult {
+
+    @Schema(description = "порядковый номер строки в пакете, начиная с 0")
+    private int index;
+    @Schema(description = "идентификатор владельца")
+    private Long userId;
+    @Schema(description = "признак успешного выпуска всех карт строки")
+    private boolean success;
+    @Schema(description = "причина отказа")
+    private String message;
+    @Schema(description = "идентификаторы выпущенных карт")
+    private List<UUID> cardIds;
+
+    public static CardIssueResult ok(int index, Long userId, int count) {
+        return new CardIssueResult(index, userId, true, null, new ArrayList<>(count));
+    }
+
+    public static CardIssueResult rejected(int index, Long userId, String message) {
+        return new CardIssueResult(index, userId, false, message, List.of());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.bankcards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO для поиска карты по номеру.
+ * <p>
+ * Номер передается в теле запроса, чтобы не попадать в URL и журналы доступа.
+ *
+ * @author Andrei Bronskijj
+ * @version 0.0.1
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Номер карты для поиска")
+public class CardLookupDto {
+
+    @NotBlank
+    @Schema(description = "номер карты", example = "1111 2222 3333 4444")
+    private String cardNumber;
+}
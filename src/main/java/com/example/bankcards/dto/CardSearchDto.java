@@ -0,0 +1,41 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.Status;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO с условиями поиска карт администратором.
+ * <p>
+ * Незаполненное условие не ограничивает выборку, границы диапазонов включаются.
+ *
+ * @author Andrei Bronskijj
+ * @version 0.0.1
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Условия поиска карт")
+public class CardSearchDto {
+
+    @Schema(description = "статус карты", example = "ACTIVE")
+    private Status status;
+    @Schema(description = "идентификатор владельца", example = "1")
+    private Long ownerId;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    @Schema(description = "срок действия не раньше", example = "2026-01-01")
+    private LocalDate expiryFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    @Schema(description = "срок действия не позже", example = "2030-12-31")
+    private LocalDate expiryTo;
+    @Schema(description = "баланс не меньше", example = "0")
+    private BigDecimal balanceFrom;
+    @Schema(description = "баланс не больше", example = "1000")
+    private BigDecimal balanceTo;
+}
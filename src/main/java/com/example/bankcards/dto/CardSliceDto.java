@@ -0,0 +1,26 @@
+package com.example.bankcards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO со страницей карт при постраничном выводе по курсору.
+ *
+ * @author Andrei Bronskijj
+ * @version 0.0.1
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Страница карт с курсором следующей страницы")
+public class CardSliceDto {
+
+    @Schema(description = "карты страницы")
+    private List<CardDto> cards;
+    @Schema(description = "курсор следующей страницы, отсутствует на последней странице")
+    private String nextCursor;
+}
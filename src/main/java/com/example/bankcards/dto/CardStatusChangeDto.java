@@ -0,0 +1,40 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.Status;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO массовой смены статуса карт.
+ * <p>
+ * Карты задаются либо списком идентификаторов, либо условиями выборки. Незаполненное условие
+ * не ограничивает выборку, но хотя бы одно условие или список должны быть заданы.
+ *
+ * @author Andrei Bronskijj
+ * @version 0.0.1
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Массовая смена статуса карт")
+public class CardStatusChangeDto {
+
+    @Schema(description = "идентификаторы карт; если заданы, условия выборки не используются")
+    private List<UUID> ids;
+    @Schema(description = "идентификатор владельца", example = "1")
+    private Long ownerId;
+    @Schema(description = "текущий статус карты", example = "ACTIVE")
+    private Status status;
+    @Schema(description = "срок действия раньше указанной даты", example = "2026-01-01")
+    private LocalDate expiryBefore;
+    @NotNull
+    @Schema(description = "новый статус", example = "BLOCKED")
+    private Status targetStatus;
+}
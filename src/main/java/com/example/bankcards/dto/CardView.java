@@ -0,0 +1,24 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.Status;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Проекция карты для списков: содержит только последние цифры номера,
+ * поэтому при чтении номер карты не загружается и не расшифровывается.
+ *
+ * @param id         идентификатор карты
+ * @param cardLast4  последние четыре цифры номера
+ * @param expiryDate срок действия
+ * @param status     статус
+ * @param balance    баланс
+ * @param ownerName  имя владельца
+ * @author Andrei Bronskijj
+ * @version 0.0.1
+ */
+public record CardView(UUID id, String cardLast4, LocalDate expiryDate, Status status, BigDecimal balance,
+                       String ownerName) {
+}
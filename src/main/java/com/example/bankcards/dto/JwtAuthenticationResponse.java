@@ -7,7 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
- * DTO c токеном доступа.
+ * DTO c токеном доступа и токеном обновления.
  *
  * @author Andrei Bronskijj
  * @version 0.0.1
@@ -16,8 +16,11 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Schema(description = "Ответ c токеном доступа")
+@Schema(description = "Ответ c токеном доступа и токеном обновления")
 public class JwtAuthenticationResponse {
     @Schema(description = "Токен доступа", example = "eyJhbGciOiJIUzUxMiJ9.eyJzdWIiOiJhZG1pbiIsImV4cCI6MTYyMjUwNj...")
     private String token;
+    @Schema(description = "Токен обновления, одноразовый: POST /login/refresh выдает вместо него новый",
+            example = "Q2hhbmdlIG1lIGV2ZXJ5IHRpbWUgeW91IHJlZnJlc2g")
+    private String refreshToken;
 }
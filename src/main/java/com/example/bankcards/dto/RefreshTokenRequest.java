@@ -0,0 +1,24 @@
+package com.example.bankcards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO для обновления токена доступа.
+ *
+ * @author Andrei Bronskijj
+ * @version 0.0.1
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Форма обновления токена доступа")
+public class RefreshTokenRequest {
+
+    @NotBlank
+    @Schema(description = "токен обновления из ответа на вход, регистрацию или предыдущее обновление")
+    private String refreshToken;
+}
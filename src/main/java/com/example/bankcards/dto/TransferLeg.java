@@ -0,0 +1,29 @@
+package com.example.bankcards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * DTO одного перевода в пакете.
+ *
+ * @author Andrei Bronskijj
+ * @version 0.0.1
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Перевод между картами в составе пакета")
+public class TransferLeg {
+
+    @Schema(description = "идентификатор карты-отправителя")
+    private UUID cardId1;
+    @Schema(description = "идентификатор карты-получателя")
+    private UUID cardId2;
+    @Schema(description = "сумма перевода", minimum = "0", exclusiveMinimum = true)
+    private BigDecimal amount;
+}
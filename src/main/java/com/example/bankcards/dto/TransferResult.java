@@ -0,0 +1,34 @@
+package com.example.bankcards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO с результатом перевода из пакета.
+ *
+ * @author Andrei Bronskijj
+ * @version 0.0.1
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Результат перевода в составе пакета")
+public class TransferResult {
+
+    @Schema(description = "порядковый номер перевода в пакете, начиная с 0")
+    private int index;
+    @Schema(description = "признак успешного перевода")
+    private boolean success;
+    @Schema(description = "причина отказа")
+    private String message;
+
+    public static TransferResult ok(int index) {
+        return new TransferResult(index, true, null);
+    }
+
+    public static TransferResult rejected(int index, String message) {
+        return new TransferResult(index, false, message);
+    }
+}
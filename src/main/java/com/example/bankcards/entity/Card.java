@@ -1,11 +1,15 @@
 package com.example.bankcards.entity;
 
 import com.example.bankcards.util.CardNumberEncryptor;
+import com.example.bankcards.util.UuidV7Generator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -13,6 +17,10 @@ import java.util.UUID;
 
 /**
  * Модель банковской карты
+ * <p>
+ * UPDATE содержит только измененные колонки, поэтому номер карты шифруется заново,
+ * только когда он действительно изменился.
+ * </p>
  *
  * @author Andrei Bronskijj, 2025
  * @version 0.0.1
@@ -20,12 +28,16 @@ import java.util.UUID;
 @Entity
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Table(name = "cards")
+@DynamicUpdate
+@EntityListeners(CardNumberHashListener.class)
 public class Card {
 
+    /**
+     * UUID версии 7 назначается приложением до вставки, что позволяет Hibernate вставлять карты пакетами
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     @Column(name = "card_id")
     private UUID cardId;
 
@@ -33,6 +45,20 @@ public class Card {
     @Column(name = "card_number")
     private String cardNumber;
 
+    /**
+     * Последние четыре цифры номера в открытом виде для маскированного вывода без расшифровки.
+     * Заполняется при установке номера карты.
+     */
+    @Column(name = "card_last4")
+    @Setter(AccessLevel.NONE)
+    private String cardLast4;
+
+    /**
+     * Слепой индекс номера карты (HMAC-SHA256), заполняется {@link CardNumberHashListener}
+     */
+    @Column(name = "card_number_hash")
+    private String cardNumberHash;
+
     @Column(name = "expiration_date")
     private LocalDate expiryDate;
 
@@ -47,4 +73,33 @@ public class Card {
     @JoinColumn(name = "owner_id")
     @JsonIgnore
     private User owner;
+
+    public Card(UUID cardId, String cardNumber, LocalDate expiryDate, Status status, BigDecimal balance, User owner) {
+        this.cardId = cardId;
+        setCardNumber(cardNumber);
+        this.expiryDate = expiryDate;
+        this.status = status;
+        this.balance = balance;
+        this.owner = owner;
+    }
+
+    public void setCardNumber(String cardNumber) {
+        this.cardNumber = cardNumber;
+        this.cardLast4 = lastFour(cardNumber);
+    }
+
+    /**
+     * Последние четыре цифры номера карты
+     * <p>
+     * Для коротких номеров (меньше 8 символов) цифры не раскрываются.
+     *
+     * @param cardNumber номер карты
+     * @return последние четыре цифры или null
+     */
+    public static String lastFour(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() < 8) {
+            return null;
+        }
+        return cardNumber.substring(cardNumber.length() - 4);
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.bankcards.entity;
+
+import com.example.bankcards.util.CardNumberHasher;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Заполняет слепой индекс номера карты перед сохранением
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Component
+public class CardNumberHashListener {
+
+    private final CardNumberHasher cardNumberHasher;
+
+    public CardNumberHashListener(CardNumberHasher cardNumberHasher) {
+        this.cardNumberHasher = cardNumberHasher;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void hashCardNumber(Card card) {
+        card.setCardNumberHash(cardNumberHasher.hash(card.getCardNumber()));
+    }
+}
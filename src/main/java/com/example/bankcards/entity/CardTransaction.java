@@ -0,0 +1,53 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Модель записи журнала движения денег по карте
+ * <p>
+ * Записи только добавляются: списание хранится с отрицательной суммой, зачисление - с положительной,
+ * поэтому сумма записей по карте равна её балансу.
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "card_transactions")
+public class CardTransaction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_transactions_seq")
+    @SequenceGenerator(name = "card_transactions_seq", sequenceName = "card_transactions_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "transfer_id")
+    private UUID transferId;
+
+    @Column(name = "card_id")
+    private UUID cardId;
+
+    @Column(name = "type")
+    @Enumerated(EnumType.STRING)
+    private TransactionType type;
+
+    @Column(name = "amount")
+    private BigDecimal amount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public CardTransaction(UUID transferId, UUID cardId, TransactionType type, BigDecimal amount) {
+        this(null, transferId, cardId, type, amount, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Модель ключа идемпотентности выполненного запроса
+ * <p>
+ * Ключ уникален в пределах пользователя: одинаковые ключи разных пользователей не пересекаются.
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyKey.KeyId.class)
+public class IdempotencyKey {
+
+    @Id
+    @Column(name = "username")
+    private String username;
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    @Column(name = "fingerprint")
+    private String fingerprint;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    /**
+     * Составной идентификатор ключа: владелец и значение заголовка
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class KeyId implements Serializable {
+        private String username;
+        private String key;
+    }
+}
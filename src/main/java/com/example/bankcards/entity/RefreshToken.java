@@ -0,0 +1,56 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Модель токена обновления
+ * <p>
+ * Хранится только хеш токена. Токены, выданные друг за другом при ротации, имеют общий {@code familyId},
+ * поэтому повторное предъявление использованного токена отзывает всю цепочку.
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "token_hash")
+    private String tokenHash;
+
+    @Column(name = "family_id")
+    private UUID familyId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "used_at")
+    private LocalDateTime usedAt;
+
+    @Column(name = "revoked")
+    private boolean revoked;
+
+    public RefreshToken(String tokenHash, UUID familyId, Long userId, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this(null, tokenHash, familyId, userId, createdAt, expiresAt, null, false);
+    }
+}
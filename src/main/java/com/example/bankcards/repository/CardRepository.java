@@ -1,13 +1,28 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.CardView;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Status;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для карт
@@ -16,7 +31,254 @@ import java.util.UUID;
  * @version 0.0.1
  */
 @Repository
-public interface CardRepository extends JpaRepository<Card, UUID> {
+public interface CardRepository extends JpaRepository<Card, UUID>, CardSearchRepository {
 
     Page<Card> findByOwnerId(Long owner_id, Pageable pageable);
+
+    /**
+     * Все карты в виде проекции без номера карты
+     *
+     * @return проекции карт
+     */
+    @Query("select new com.example.bankcards.dto.CardView(c.cardId, c.cardLast4, c.expiryDate, c.status, c.balance, " +
+            "o.username) from Card c join c.owner o")
+    List<CardView> findAllViews();
+
+    /**
+     * Карта в виде проекции без номера карты
+     *
+     * @param id идентификатор карты
+     * @return проекция карты
+     */
+    @Query("select new com.example.bankcards.dto.CardView(c.cardId, c.cardLast4, c.expiryDate, c.status, c.balance, " +
+            "o.username) from Card c join c.owner o where c.cardId = :id")
+    Optional<CardView> findViewById(@Param("id") UUID id);
+
+    /**
+     * Все карты в виде потока проекций для выгрузки
+     * <p>
+     * Строки читаются из курсора базы порциями по {@code fetch size}. Проекции не попадают
+     * в контекст персистентности, поэтому память не растет с размером таблицы.
+     * Поток должен закрываться и читаться внутри транзакции.
+     *
+     * @return поток проекций карт
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.bankcards.dto.CardView(c.cardId, c.cardLast4, c.expiryDate, c.status, c.balance, " +
+            "o.username) from Card c join c.owner o")
+    Stream<CardView> streamAllViews();
+
+    /**
+     * Карты владельца в виде проекции без номера карты
+     * <p>
+     * Возвращает список, а не страницу, поэтому запрос количества не выполняется.
+     *
+     * @param ownerId  идентификатор владельца
+     * @param pageable параметры страницы
+     * @return проекции карт
+     */
+    @Query("select new com.example.bankcards.dto.CardView(c.cardId, c.cardLast4, c.expiryDate, c.status, " +
+            "c.balance, o.username) from Card c join c.owner o where o.id = :ownerId")
+    List<CardView> findViewsByOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    /**
+     * Карты владельца после указанной карты в порядке возрастания идентификатора
+     * <p>
+     * Постраничный вывод по ключу использует индекс {@code (owner_id, card_id)} и не зависит от глубины страницы.
+     *
+     * @param ownerId  идентификатор владельца
+     * @param after    идентификатор последней карты предыдущей страницы
+     * @param pageable размер страницы
+     * @return проекции карт
+     */
+    @Query("select new com.example.bankcards.dto.CardView(c.cardId, c.cardLast4, c.expiryDate, c.status, " +
+            "c.balance, o.username) from Card c join c.owner o where o.id = :ownerId and c.cardId > :after " +
+            "order by c.cardId")
+    List<CardView> findViewsByOwnerIdAfter(@Param("ownerId") Long ownerId, @Param("after") UUID after,
+                                           Pageable pageable);
+
+    /**
+     * Карта вместе с владельцем одним запросом с блокировкой строки до конца транзакции
+     * <p>
+     * Переводы меняют баланс условными UPDATE, поэтому изменение карты администратором должно
+     * прочитать актуальный баланс и не дать переводу изменить его до фиксации, как {@link #lockAllById}.
+     *
+     * @param id идентификатор карты
+     * @return карта
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Card c join fetch c.owner where c.cardId = :id")
+    Optional<Card> findWithOwnerById(@Param("id") UUID id);
+
+    /**
+     * Поиск карты по слепому индексу номера
+     *
+     * @param cardNumberHash HMAC номера карты
+     * @return карта
+     */
+    Optional<Card> findByCardNumberHash(String cardNumberHash);
+
+    boolean existsByCardNumberHash(String cardNumberHash);
+
+    /**
+     * Слепые индексы из списка, уже занятые картами
+     *
+     * @param hashes проверяемые HMAC номеров
+     * @return занятые HMAC
+     */
+    @Query("select c.cardNumberHash from Card c where c.cardNumberHash in :hashes")
+    Set<String> findExistingNumberHashes(@Param("hashes") Collection<String> hashes);
+
+    /**
+     * Резервирует блок порядковых номеров карт
+     *
+     * @return первый номер блока
+     */
+    @Query(value = "select nextval('card_number_seq')", nativeQuery = true)
+    long nextCardNumberBlock();
+
+    /**
+     * Шаг последовательности блоков номеров карт
+     *
+     * @return INCREMENT BY последовательности {@code card_number_seq} или пустой Optional, если её нет
+     */
+    @Query(value = "select cast(increment as bigint) from information_schema.sequences " +
+            "where lower(sequence_name) = 'card_number_seq'", nativeQuery = true)
+    Optional<Long> findCardNumberBlockIncrement();
+
+    /**
+     * Карты без слепого индекса номера, порциями по возрастанию идентификатора
+     * <p>
+     * Карты, пропущенные из-за повторяющегося номера, не выбираются.
+     *
+     * @param after идентификатор, после которого начинается порция
+     * @param limit размер порции
+     * @return карты
+     */
+    @Query(value = "SELECT * FROM cards WHERE card_number_hash IS NULL AND NOT card_number_hash_skipped " +
+            "AND card_id > :after ORDER BY card_id LIMIT :limit", nativeQuery = true)
+    List<Card> findWithoutNumberHash(@Param("after") UUID after, @Param("limit") int limit);
+
+    /**
+     * Записывает последние цифры номера карте, которой нельзя назначить слепой индекс,
+     * и отмечает ее, чтобы заполнение больше ее не выбирало
+     *
+     * @param id    идентификатор карты
+     * @param last4 последние четыре цифры
+     * @return количество измененных строк
+     */
+    @Modifying
+    @Query(value = "UPDATE cards SET card_last4 = :last4, card_number_hash_skipped = TRUE WHERE card_id = :id",
+            nativeQuery = true)
+    int markNumberHashSkipped(@Param("id") UUID id, @Param("last4") String last4);
+
+    /**
+     * Записывает вычисляемые из номера колонки карты
+     *
+     * @param id    идентификатор карты
+     * @param last4 последние четыре цифры
+     * @param hash  слепой индекс номера
+     * @return количество измененных строк
+     */
+    @Modifying
+    @Query("update Card c set c.cardLast4 = :last4, c.cardNumberHash = :hash where c.cardId = :id")
+    int updateDerivedColumns(@Param("id") UUID id, @Param("last4") String last4, @Param("hash") String hash);
+
+    /**
+     * Блокирует строки карт в порядке возрастания идентификатора.
+     * <p>
+     * Единый порядок захвата блокировок исключает взаимоблокировки между встречными переводами.
+     *
+     * @param ids идентификаторы карт
+     * @return идентификаторы найденных и заблокированных карт
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c.cardId from Card c where c.cardId in :ids order by c.cardId")
+    List<UUID> lockAllById(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Списывает сумму с активной карты одним условным UPDATE.
+     *
+     * @param id     идентификатор карты
+     * @param amount сумма списания
+     * @return 1, если списание выполнено, 0 - если средств недостаточно или карта не активна
+     */
+    @Modifying
+    @Query(value = "UPDATE cards SET balance = balance - :amount " +
+            "WHERE card_id = :id AND balance >= :amount AND status = 'ACTIVE'", nativeQuery = true)
+    int debit(@Param("id") UUID id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Зачисляет сумму на карту.
+     *
+     * @param id     идентификатор карты
+     * @param amount сумма зачисления
+     * @return количество измененных строк
+     */
+    @Modifying
+    @Query(value = "UPDATE cards SET balance = balance + :amount WHERE card_id = :id", nativeQuery = true)
+    int credit(@Param("id") UUID id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Идентификаторы карт из списка, принадлежащих пользователю
+     *
+     * @param ids     идентификаторы карт
+     * @param ownerId идентификатор владельца
+     * @return идентификаторы карт пользователя
+     */
+    @Query("select c.cardId from Card c where c.cardId in :ids and c.owner.id = :ownerId")
+    Set<UUID> findIdsByOwnerId(@Param("ids") Collection<UUID> ids, @Param("ownerId") Long ownerId);
+
+    /**
+     * Переводит активные карты в статус {@link Status#EXPIRED} одним UPDATE
+     *
+     * @param ids идентификаторы карт
+     * @return количество измененных строк
+     */
+    @Modifying
+    @Query(value = "UPDATE cards SET status = 'EXPIRED' WHERE card_id IN (:ids) AND status = 'ACTIVE'",
+            nativeQuery = true)
+    int expireAll(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Устанавливает статус картам из списка одним UPDATE без загрузки сущностей
+     *
+     * @param ids    идентификаторы карт
+     * @param status новый статус
+     * @return количество карт, статус которых изменился
+     */
+    @Modifying
+    @Query("update Card c set c.status = :status where c.cardId in :ids and c.status <> :status")
+    int updateStatusAll(@Param("ids") Collection<UUID> ids, @Param("status") Status status);
+
+    /**
+     * Устанавливает статус карты одним UPDATE без загрузки сущности
+     *
+     * @param id     идентификатор карты
+     * @param status новый статус
+     * @return 1, если карта найдена, иначе 0
+     */
+    @Modifying
+    @Query("update Card c set c.status = :status where c.cardId = :id")
+    int updateStatus(@Param("id") UUID id, @Param("status") Status status);
+
+    /**
+     * Удаляет карту без записей в журнале одним DELETE без загрузки сущности
+     *
+     * @param id идентификатор карты
+     * @return 1, если карта удалена, 0 - если она не найдена или у нее есть записи в журнале
+     */
+    @Modifying
+    @Query("delete from Card c where c.cardId = :id " +
+            "and not exists (select t.id from CardTransaction t where t.cardId = c.cardId)")
+    int deleteCardById(@Param("id") UUID id);
+
+    @Query("select c.status from Card c where c.cardId = :id")
+    Optional<Status> findStatusById(@Param("id") UUID id);
+
+    @Query("select c.balance from Card c where c.cardId = :id")
+    Optional<BigDecimal> findBalanceById(@Param("id") UUID id);
 }
@@ -0,0 +1,53 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardView;
+import com.example.bankcards.entity.Card;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Поиск карт по динамическим условиям с выборкой проекций и блокировка порций карт
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+public interface CardSearchRepository {
+
+    /**
+     * Карты, удовлетворяющие условию, в порядке возрастания идентификатора
+     * <p>
+     * Выбираются только колонки проекции, номер карты не загружается и не расшифровывается.
+     *
+     * @param specification условие выборки
+     * @param limit         максимальное количество карт
+     * @return проекции карт
+     */
+    List<CardView> findViews(Specification<Card> specification, int limit);
+
+    /**
+     * Блокирует карты, удовлетворяющие условию, в порядке возрастания идентификатора
+     * <p>
+     * Выбираются только идентификаторы, сущности карт не загружаются.
+     *
+     * @param specification условие выборки
+     * @param limit         максимальное количество карт
+     * @return идентификаторы заблокированных карт
+     */
+    List<UUID> lockIds(Specification<Card> specification, int limit);
+
+    /**
+     * Блокирует порцию активных карт с истекшим сроком действия.
+     * <p>
+     * Строки, уже заблокированные другой транзакцией, пропускаются ({@code FOR UPDATE SKIP LOCKED}),
+     * поэтому несколько узлов обрабатывают разные порции без ожидания друг друга. Выборка использует
+     * частичный индекс {@code cards_active_expiration_date_idx}.
+     *
+     * @param today текущая дата, карты со сроком действия раньше нее считаются истекшими
+     * @param limit размер порции
+     * @return идентификаторы заблокированных карт
+     */
+    List<UUID> lockExpiredIds(LocalDate today, int limit);
+}
@@ -0,0 +1,74 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardView;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Реализация {@link CardSearchRepository} на Criteria API и SQL
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+public class CardSearchRepositoryImpl implements CardSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<CardView> findViews(Specification<Card> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CardView> query = cb.createQuery(CardView.class);
+        Root<Card> card = query.from(Card.class);
+        Join<Card, User> owner = card.join("owner");
+        query.select(cb.construct(CardView.class, card.get("cardId"), card.get("cardLast4"), card.get("expiryDate"),
+                card.get("status"), card.get("balance"), owner.get("username")));
+        Predicate predicate = specification.toPredicate(card, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(card.get("cardId")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<UUID> lockIds(Specification<Card> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = cb.createQuery(UUID.class);
+        Root<Card> card = query.from(Card.class);
+        query.select(card.get("cardId"));
+        Predicate predicate = specification.toPredicate(card, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(card.get("cardId")));
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<UUID> lockExpiredIds(LocalDate today, int limit) {
+        // тип результата задается явно: по метаданным JDBC H2 отдает uuid как массив байтов
+        return entityManager.createNativeQuery("SELECT card_id FROM cards " +
+                        "WHERE status = 'ACTIVE' AND expiration_date < :today " +
+                        "LIMIT :limit FOR UPDATE SKIP LOCKED", UUID.class)
+                .setParameter("today", today)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
+}
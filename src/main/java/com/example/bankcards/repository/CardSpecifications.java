@@ -0,0 +1,94 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardSearchDto;
+import com.example.bankcards.dto.CardStatusChangeDto;
+import com.example.bankcards.entity.Card;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Условия выборки карт для поиска администратором
+ * <p>
+ * Каждому условию соответствует индекс {@code cards}: статус - {@code (status, card_id)},
+ * владелец - {@code (owner_id, card_id)}, срок действия - {@code (expiration_date)},
+ * баланс - {@code (balance)}. Порядок по {@code card_id} для вывода по ключу индекс дает только
+ * при равенстве по статусу или владельцу; строки диапазона по сроку или балансу сортируются
+ * перед {@code LIMIT}, поэтому такой поиск тем дороже, чем шире диапазон.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+public final class CardSpecifications {
+
+    private CardSpecifications() {
+    }
+
+    /**
+     * Карты, удовлетворяющие всем заполненным условиям поиска
+     *
+     * @param filter условия поиска
+     * @return условие выборки
+     */
+    public static Specification<Card> matching(CardSearchDto filter) {
+        return (card, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(card.get("status"), filter.getStatus()));
+            }
+            if (filter.getOwnerId() != null) {
+                predicates.add(cb.equal(card.get("owner").get("id"), filter.getOwnerId()));
+            }
+            if (filter.getExpiryFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(card.get("expiryDate"), filter.getExpiryFrom()));
+            }
+            if (filter.getExpiryTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(card.get("expiryDate"), filter.getExpiryTo()));
+            }
+            if (filter.getBalanceFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(card.get("balance"), filter.getBalanceFrom()));
+            }
+            if (filter.getBalanceTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(card.get("balance"), filter.getBalanceTo()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Карты, удовлетворяющие всем заполненным условиям массовой смены статуса, кроме уже имеющих целевой статус
+     *
+     * @param filter условия выборки и целевой статус
+     * @return условие выборки
+     */
+    public static Specification<Card> matching(CardStatusChangeDto filter) {
+        return (card, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.notEqual(card.get("status"), filter.getTargetStatus()));
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(card.get("status"), filter.getStatus()));
+            }
+            if (filter.getOwnerId() != null) {
+                predicates.add(cb.equal(card.get("owner").get("id"), filter.getOwnerId()));
+            }
+            if (filter.getExpiryBefore() != null) {
+                predicates.add(cb.lessThan(card.get("expiryDate"), filter.getExpiryBefore()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Карты с идентификатором больше указанного, для постраничного вывода по ключу
+     *
+     * @param after идентификатор последней карты предыдущей страницы
+     * @return условие выборки
+     */
+    public static Specification<Card> idAfter(UUID after) {
+        return (card, query, cb) -> cb.greaterThan(card.get("cardId"), after);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Репозиторий журнала движения денег по картам
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Repository
+public interface CardTransactionRepository extends JpaRepository<CardTransaction, Long> {
+
+    /**
+     * Находит карты, баланс которых не совпадает с суммой записей журнала.
+     *
+     * @return идентификаторы расходящихся карт
+     */
+    @Query("select c.cardId from Card c where c.balance <> " +
+            "coalesce((select sum(t.amount) from CardTransaction t where t.cardId = c.cardId), 0)")
+    List<UUID> findCardIdsOutOfBalance();
+
+    /**
+     * Проверяет, есть ли записи в журнале по картам пользователя
+     *
+     * @param ownerId идентификатор владельца карт
+     * @return true, если хотя бы у одной карты пользователя есть записи
+     */
+    @Query("select count(t) > 0 from CardTransaction t where t.cardId in " +
+            "(select c.cardId from Card c where c.owner.id = :ownerId)")
+    boolean existsByOwnerId(@Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,52 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Репозиторий ключей идемпотентности
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, IdempotencyKey.KeyId> {
+
+    /**
+     * Сохраняет ключ пользователя, если его ещё нет или он просрочен, но ещё не удален.
+     * <p>
+     * Конкурентный запрос с тем же ключом ждет завершения первой транзакции и получает 0.
+     *
+     * @return 1, если ключ сохранен, 0 - если действующий ключ уже существует
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (username, idempotency_key, fingerprint, created_at, expires_at) " +
+            "VALUES (:username, :key, :fingerprint, :createdAt, :expiresAt) " +
+            "ON CONFLICT (username, idempotency_key) DO UPDATE SET fingerprint = EXCLUDED.fingerprint, " +
+            "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotency_keys.expires_at < EXCLUDED.created_at", nativeQuery = true)
+    int insertIfAbsent(@Param("username") String username, @Param("key") String key,
+                       @Param("fingerprint") String fingerprint,
+                       @Param("createdAt") LocalDateTime createdAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Удаляет порцию просроченных ключей в отдельной транзакции.
+     *
+     * @param now   текущее время
+     * @param limit максимальное количество удаляемых ключей
+     * @return количество удаленных ключей
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE (username, idempotency_key) IN " +
+            "(SELECT username, idempotency_key FROM idempotency_keys WHERE expires_at < :now LIMIT :limit)",
+            nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
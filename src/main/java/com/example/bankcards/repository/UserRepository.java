@@ -2,9 +2,13 @@ package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Репозиторий для пользователей
@@ -15,4 +19,16 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    @Query("select u.username from User u where u.enabled = false")
+    Set<String> findDisabledUsernames();
+
+    /**
+     * Идентификаторы существующих пользователей из списка одним запросом
+     *
+     * @param ids проверяемые идентификаторы
+     * @return найденные идентификаторы
+     */
+    @Query("select u.id from User u where u.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
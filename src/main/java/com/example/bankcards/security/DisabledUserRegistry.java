@@ -0,0 +1,71 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.CacheInvalidationBus;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Реестр заблокированных пользователей для аутентификации без обращения к базе.
+ * <p>
+ * Хранит в памяти имена пользователей с {@code enabled = false} и периодически перечитывает их из базы,
+ * поэтому блокировка пользователя начинает действовать через несколько секунд на всех запросах.
+ * Изменение пользователя на другом узле, полученное через {@link CacheInvalidationBus}, перечитывает реестр сразу.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Slf4j
+@Component
+public class DisabledUserRegistry {
+
+    private final UserRepository userRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private volatile Set<String> disabledUsernames = Set.of();
+
+    public DisabledUserRegistry(UserRepository userRepository, VerifiedTokenCache verifiedTokenCache,
+                                CacheInvalidationBus invalidationBus) {
+        this.userRepository = userRepository;
+        this.verifiedTokenCache = verifiedTokenCache;
+        invalidationBus.subscribe(CacheInvalidationBus.USERS, username -> {
+            verifiedTokenCache.evictUser(username);
+            refresh();
+        }, () -> {
+            verifiedTokenCache.invalidateAll();
+            refresh();
+        });
+    }
+
+    /**
+     * Проверяет, заблокирован ли пользователь
+     *
+     * @param username имя пользователя
+     * @return true, если пользователь заблокирован
+     */
+    public boolean isDisabled(String username) {
+        return disabledUsernames.contains(username);
+    }
+
+    /**
+     * Перечитывает список заблокированных пользователей из базы
+     * и удаляет из кэша токены пользователей, заблокированных с прошлого обновления
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${token.revocation.refresh-interval}",
+            initialDelayString = "${token.revocation.refresh-interval}")
+    public synchronized void refresh() {
+        Set<String> usernames = userRepository.findDisabledUsernames();
+        Set<String> previous = disabledUsernames;
+        disabledUsernames = usernames == null ? Set.of() : Set.copyOf(usernames);
+        disabledUsernames.stream()
+                .filter(username -> !previous.contains(username))
+                .forEach(verifiedTokenCache::evictUser);
+        log.debug("Disabled users registry refreshed, {} users blocked", disabledUsernames.size());
+    }
+}
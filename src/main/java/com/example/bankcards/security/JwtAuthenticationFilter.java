@@ -1,7 +1,9 @@
 package com.example.bankcards.security;
 
 import com.example.bankcards.entity.SecurityUser;
+import com.example.bankcards.entity.User;
 import com.example.bankcards.service.UserService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,6 +11,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,9 +23,21 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
- *
+ * Фильтр аутентификации по JWT
+ * <p>
+ * В режиме {@code token.stateless} пользователь восстанавливается из проверенных данных токена
+ * ({@code sub}, {@code id}, {@code role}) без обращения к базе, а блокировка проверяется по
+ * {@link DisabledUserRegistry}. Токены без этих данных и режим {@code token.stateless=false}
+ * обрабатываются с загрузкой пользователя из базы.
+ * </p>
+ * <p>
+ * На просроченный или поддельный токен фильтр сразу отвечает 401, чтобы клиент получил новый токен
+ * через {@code /login/refresh}. Запросы входа, обновления токена и регистрации фильтр не проверяет:
+ * устаревший заголовок не должен мешать получить новый токен.
+ * </p>
  *
  * @author Andrei Bronskijj, 2025
  * @version 0.0.1
@@ -31,8 +48,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     public static final String BEARER_PREFIX = "Bearer ";
     public static final String HEADER_NAME = "Authorization";
+    static final String INVALID_TOKEN = "Токен доступа недействителен или истек, обновите его через /login/refresh";
     private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final UserService userService;
+    private final DisabledUserRegistry disabledUserRegistry;
+
+    @Value("${token.stateless}")
+    private boolean stateless;
 
     /**
      * Обрабатывает внутреннюю логику фильтра JWT аутентификации.
@@ -47,8 +70,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      * @param filterChain цепочка фильтров для передачи управления следующему фильтру в цепочке. Не может быть null
      * @throws ServletException если происходит ошибка при обработке запроса или ответа
      * @throws IOException      если происходит ошибка ввода/вывода при обработке запроса или ответа
-     * @see JwtService#extractUserName(String)
-     * @see JwtService#isTokenValid(String, UserDetails)
+     * @see VerifiedTokenCache#get(String)
+     * @see JwtService#isTokenValid(TokenClaims, UserDetails)
      * @see SecurityContextHolder
      * @see UsernamePasswordAuthenticationToken
      */
@@ -66,15 +89,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        // Обрезаем префикс и получаем имя пользователя из токена
+        // Обрезаем префикс и получаем данные пользователя из токена
         var jwt = authHeader.substring(BEARER_PREFIX.length());
-        var username = jwtService.extractUserName(jwt);
 
-        if (StringUtils.isNotEmpty(username) && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = new SecurityUser(userService.getUserByUsername(username));
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            TokenClaims claims;
+            try {
+                claims = verifiedTokenCache.get(jwt);
+            } catch (JwtException | IllegalArgumentException e) {
+                rejectToken(response);
+                return;
+            }
+            UserDetails userDetails = stateless ? fromClaims(claims) : fromDatabase(claims);
 
             // Если токен валиден, то аутентифицируем пользователя
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (userDetails != null) {
                 SecurityContext context = SecurityContextHolder.createEmptyContext();
 
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
@@ -90,4 +119,54 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    @Override
+    protected boolean shouldNotFilter(@NotNull HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.startsWith("/login") || path.startsWith("/register");
+    }
+
+    /**
+     * Отвечает 401 на невалидный или просроченный токен
+     *
+     * @param response HTTP ответ
+     * @throws IOException если ответ не удалось записать
+     */
+    private static void rejectToken(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"code\":\"401\",\"message\":\"" + INVALID_TOKEN + "\"}");
+    }
+
+    /**
+     * Восстанавливает пользователя из данных токена без обращения к базе
+     *
+     * @param claims проверенные данные токена
+     * @return данные пользователя или null, если пользователь заблокирован
+     */
+    private UserDetails fromClaims(TokenClaims claims) {
+        if (StringUtils.isEmpty(claims.username()) || claims.userId() == null || claims.role() == null) {
+            return fromDatabase(claims);
+        }
+        if (disabledUserRegistry.isDisabled(claims.username())) {
+            return null;
+        }
+        return new SecurityUser(new User(claims.userId(), claims.username(), null, claims.role(), true, null));
+    }
+
+    /**
+     * Загружает пользователя из базы и проверяет токен
+     *
+     * @param claims проверенные данные токена
+     * @return данные пользователя или null, если токен невалиден
+     */
+    private UserDetails fromDatabase(TokenClaims claims) {
+        if (StringUtils.isEmpty(claims.username())) {
+            return null;
+        }
+        UserDetails userDetails = new SecurityUser(userService.getUserByUsername(claims.username()));
+        return jwtService.isTokenValid(claims, userDetails) ? userDetails : null;
+    }
 }
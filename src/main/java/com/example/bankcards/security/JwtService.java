@@ -2,8 +2,8 @@ package com.example.bankcards.security;
 
 import com.example.bankcards.entity.SecurityUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.jetbrains.annotations.NotNull;
@@ -11,14 +11,19 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 /**
  * Класс фильтра JWT для аутентификации
+ * <p>
+ * Ключ подписи и парсер создаются один раз при старте и переиспользуются для всех запросов.
+ * Токен доступа живет {@code token.access-ttl} (минуты), поэтому проверяется только в памяти,
+ * а продлевается через токен обновления, см. {@link com.example.bankcards.service.RefreshTokenService}.
+ * </p>
  *
  * @author Andrei Bronskijj, 2025
  * @version 0.0.1
@@ -26,8 +31,33 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
-    @Value("${token.signing.key}")
-    private String jwtSigningKey;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Duration accessTtl;
+
+    /**
+     * @param jwtSigningKey ключ подписи в Base64
+     * @param accessTtl     время жизни токена доступа
+     */
+    public JwtService(@Value("${token.signing.key}") String jwtSigningKey,
+                      @Value("${token.access-ttl}") Duration accessTtl) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSigningKey));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.accessTtl = accessTtl;
+    }
+
+    /**
+     * Разбор и проверка токена
+     * <p>
+     * Подпись и срок действия проверяются один раз, дальше используются полученные данные.
+     *
+     * @param token токен
+     * @return проверенные данные токена
+     * @throws io.jsonwebtoken.JwtException если токен невалиден или просрочен
+     */
+    public TokenClaims parse(String token) {
+        return TokenClaims.of(extractAllClaims(token));
+    }
 
     /**
      * Извлечение имени пользователя из токена
@@ -36,7 +66,7 @@ public class JwtService {
      * @return имя пользователя
      */
     public String extractUserName(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return extractAllClaims(token).getSubject();
     }
 
     /**
@@ -62,21 +92,19 @@ public class JwtService {
      * @return true, если токен валиден
      */
     public boolean isTokenValid(String token, @NotNull UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(parse(token), userDetails);
     }
 
     /**
-     * Извлечение данных из токена
+     * Проверка разобранного токена на валидность
      *
-     * @param token           токен
-     * @param claimsResolvers функция извлечения данных
-     * @param <T>             тип данных
-     * @return данные
+     * @param claims      проверенные данные токена
+     * @param userDetails данные пользователя
+     * @return true, если токен выдан этому пользователю и не просрочен
      */
-    private <T> T extractClaim(String token, @NotNull Function<Claims, T> claimsResolvers) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolvers.apply(claims);
+    public boolean isTokenValid(@NotNull TokenClaims claims, @NotNull UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.username())
+                && claims.expiresAt() != null && !claims.expiresAt().before(new Date());
     }
 
     /**
@@ -87,30 +115,11 @@ public class JwtService {
      * @return токен
      */
     private String generateToken(Map<String, Object> extraClaims, @NotNull UserDetails userDetails) {
-        return Jwts.builder().setClaims(extraClaims).setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 100000 * 60 * 24))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256).compact();
-    }
-
-    /**
-     * Проверка токена на просроченность
-     *
-     * @param token токен
-     * @return true, если токен просрочен
-     */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    /**
-     * Извлечение даты истечения токена
-     *
-     * @param token токен
-     * @return дата истечения
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        long now = System.currentTimeMillis();
+        return Jwts.builder().claims(extraClaims).subject(userDetails.getUsername())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + accessTtl.toMillis()))
+                .signWith(signingKey, Jwts.SIG.HS256).compact();
     }
 
     /**
@@ -120,17 +129,6 @@ public class JwtService {
      * @return данные
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(getSigningKey()).build().parseClaimsJws(token)
-                .getBody();
-    }
-
-    /**
-     * Получение ключа для подписи токена
-     *
-     * @return ключ
-     */
-    private @NotNull Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSigningKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
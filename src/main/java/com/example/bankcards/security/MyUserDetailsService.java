@@ -10,6 +10,8 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 /**
  * Реализация UserDetailsService для работы с пользователями в контексте Security
  *
@@ -42,6 +44,19 @@ public class MyUserDetailsService implements UserDetailsService {
                 securityUser.getAuthorities());
     }
 
+    /**
+     * Метод для получения пользователя по логину одним запросом
+     *
+     * @param username - логин пользователя
+     * @return данные пользователя или пустой Optional, если пользователь не найден
+     */
+    public Optional<SecurityUser> findUser(String username) {
+
+        log.debug("Method for finding user's by username start");
+
+        return userRepository.findByUsername(username).map(SecurityUser::new);
+    }
+
     /**
      * Метод для проверки существования пользователя
      *
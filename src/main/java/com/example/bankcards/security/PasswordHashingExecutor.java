@@ -0,0 +1,119 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный пул для хеширования и проверки паролей
+ * <p>
+ * BCrypt намеренно медленный, поэтому всплеск входов, выполняемых на потоках Tomcat, занимает все ядра
+ * и вытесняет остальные запросы. Пул ограничивает хеширование заданным числом потоков (по умолчанию -
+ * числом ядер), а очередь - заданной длиной. Задача, не поместившаяся в очередь, отклоняется сразу
+ * с {@link TooManyRequestsException}, а не ждет освобождения пула.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "auth.hashing";
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile Timer latency;
+
+    /**
+     * @param threads       количество потоков; 0 - по числу доступных процессоров
+     * @param queueCapacity максимальное количество задач, ожидающих свободного потока
+     */
+    public PasswordHashingExecutor(@Value("${bank.auth.hashing.threads}") int threads,
+                                   @Value("${bank.auth.hashing.queue-capacity}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+        log.info("Password hashing pool started with {} threads and queue of {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Выполняет задачу в пуле и ждет ее результата
+     *
+     * @param task хеширование или проверка пароля
+     * @return результат задачи
+     * @throws TooManyRequestsException если очередь пула заполнена
+     */
+    public <T> T execute(@NotNull Supplier<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new TooManyRequestsException();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание хеширования пароля прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Ошибка хеширования пароля", e.getCause());
+        } finally {
+            Timer timer = latency;
+            if (timer != null) {
+                timer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        latency = Timer.builder(METRIC_PREFIX + ".latency")
+                .description("Время от постановки задачи в очередь до получения результата")
+                .publishPercentileHistogram()
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".rejected", rejected, AtomicLong::get)
+                .description("Задачи, отклоненные из-за заполненной очереди")
+                .register(registry);
+        // executor.queued - глубина очереди, executor.active - занятые потоки
+        new ExecutorServiceMetrics(executor, METRIC_PREFIX, List.of()).bindTo(registry);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.Role;
+import io.jsonwebtoken.Claims;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Date;
+
+/**
+ * Проверенные данные JWT токена
+ * <p>
+ * Создаётся только после проверки подписи и срока действия, поэтому повторно токен не разбирается.
+ * </p>
+ *
+ * @param username  имя пользователя ({@code sub})
+ * @param userId    идентификатор пользователя или null, если в токене его нет
+ * @param role      роль пользователя или null, если в токене её нет
+ * @param expiresAt дата истечения токена
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+public record TokenClaims(String username, Long userId, Role role, Date expiresAt) {
+
+    /**
+     * Преобразует проверенные данные токена
+     *
+     * @param claims данные токена
+     * @return проверенные данные
+     */
+    static @NotNull TokenClaims of(@NotNull Claims claims) {
+        String role = claims.get("role", String.class);
+        return new TokenClaims(
+                claims.getSubject(),
+                claims.get("id", Long.class),
+                role == null ? null : Role.valueOf(role),
+                claims.getExpiration());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.bankcards.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Кэш проверенных JWT токенов
+ * <p>
+ * Ключ - SHA-256 от токена, значение - проверенные данные токена. Повторный запрос с тем же токеном
+ * не проверяет подпись и не разбирает JSON. Запись живёт не дольше {@code token.cache.ttl}
+ * и не дольше срока действия самого токена.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    private final JwtService jwtService;
+    private final Cache<ByteBuffer, TokenClaims> cache;
+
+    public VerifiedTokenCache(JwtService jwtService,
+                              @Value("${token.cache.max-size}") long maxSize,
+                              @Value("${token.cache.ttl}") Duration ttl) {
+        this.jwtService = jwtService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(ttl))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Возвращает проверенные данные токена, при промахе разбирает и проверяет токен
+     *
+     * @param token токен
+     * @return проверенные данные токена
+     * @throws io.jsonwebtoken.JwtException если токен невалиден или просрочен
+     */
+    public TokenClaims get(String token) {
+        return cache.get(hash(token), key -> jwtService.parse(token));
+    }
+
+    /**
+     * Удаляет из кэша все токены пользователя после фиксации текущей транзакции, а вне транзакции - сразу
+     * <p>
+     * Удаление до фиксации позволило бы параллельному запросу снова положить в кэш токен,
+     * проверенный по еще не измененным данным пользователя.
+     *
+     * @param username имя пользователя
+     */
+    public void evictUser(String username) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(username);
+            }
+        });
+    }
+
+    /**
+     * Очищает кэш полностью
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "jwt.tokens");
+    }
+
+    private void evict(String username) {
+        cache.asMap().values().removeIf(claims -> Objects.equals(claims.username(), username));
+    }
+
+    private static ByteBuffer hash(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Срок жизни записи - меньшее из {@code ttl} и времени до истечения токена
+     */
+    private record TokenExpiry(Duration ttl) implements Expiry<ByteBuffer, TokenClaims> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, TokenClaims claims, long currentTime) {
+            long ttlNanos = ttl.toNanos();
+            if (claims.expiresAt() == null) {
+                return ttlNanos;
+            }
+            long untilExpiry = Duration.ofMillis(claims.expiresAt().getTime() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(ttlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, TokenClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, TokenClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -4,16 +4,18 @@ import com.example.bankcards.dto.JwtAuthenticationResponse;
 import com.example.bankcards.dto.Register;
 import com.example.bankcards.entity.SecurityUser;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidRefreshTokenException;
+import com.example.bankcards.exception.TooManyRequestsException;
 import com.example.bankcards.exception.UserAlreadyExistException;
 import com.example.bankcards.exception.UserNoSuchException;
 import com.example.bankcards.exception.WrongPasswordException;
 import com.example.bankcards.security.JwtService;
 import com.example.bankcards.security.MyUserDetailsService;
+import com.example.bankcards.security.PasswordHashingExecutor;
 import com.example.bankcards.util.UserMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -32,44 +34,48 @@ public class AuthService {
     private final MyUserDetailsService manager;
     private final UserMapper userMapper;
     private final JwtService jwtService;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final RefreshTokenService refreshTokenService;
 
     /**
      * Метод для авторизации пользователя
      * <p>
-     * Проверяет наличие пользователя в базе и совпадение переданного пароля с сохраненным
-     * и выдает токен, если все верно
+     * Загружает пользователя одним запросом, проверяет совпадение переданного пароля с сохраненным
+     * в {@link PasswordHashingExecutor} и выдает токен доступа и токен обновления, если все верно
      *
      * @param userName - логин пользователя
      * @param password - пароль пользователя
-     * @return DTO сгенерированного токена
-     * @throws UserNoSuchException    если пользователя не найден
-     * @throws WrongPasswordException если пароль неверен
+     * @return DTO сгенерированных токенов
+     * @throws UserNoSuchException      если пользователя не найден
+     * @throws WrongPasswordException   если пароль неверен
+     * @throws TooManyRequestsException если очередь проверки паролей заполнена
      */
 
     public JwtAuthenticationResponse login(String userName, String password) {
         log.info("Method of the login user's start");
-        if (!manager.userExists(userName)) {
+        SecurityUser userDetails = manager.findUser(userName).orElseThrow(() -> {
             log.info("User {} does not exist", userName);
-            throw new UserNoSuchException("Пользователь " + userName + " не зарегистрирован");
-        }
-        UserDetails userDetails = manager.loadUserByUsername(userName);
-        if (!encoder.matches(password, userDetails.getPassword())) {
+            return new UserNoSuchException("Пользователь " + userName + " не зарегистрирован");
+        });
+        if (!hashingExecutor.execute(() -> encoder.matches(password, userDetails.getPassword()))) {
             log.info("User {} does not match password", userName);
             throw new WrongPasswordException();
         }
         log.info("User {} successfully logged in", userName);
         var jwt = jwtService.generateToken(userDetails);
-        return new JwtAuthenticationResponse(jwt);
+        return new JwtAuthenticationResponse(jwt, refreshTokenService.issue(userDetails.user().getId()));
     }
 
     /**
      * Метод для регистрации нового пользователя
      * <p>
-     * Проверяет уникальность имени пользователя и выдает токен, если пользователь ещё не зарегистрирован
+     * Проверяет уникальность имени пользователя и выдает токены, если пользователь ещё не зарегистрирован.
+     * Пароль хешируется в {@link PasswordHashingExecutor}
      *
      * @param register - DTO для регистрации пользователя
-     * @return DTO сгенерированного токена
+     * @return DTO сгенерированных токенов
      * @throws UserAlreadyExistException если пользователь уже зарегистрирован
+     * @throws TooManyRequestsException  если очередь хеширования паролей заполнена
      */
 
     public JwtAuthenticationResponse register(@NotNull Register register) {
@@ -79,10 +85,30 @@ public class AuthService {
             throw new UserAlreadyExistException();
         }
         User user = userMapper.entityFromRegister(register);
-        user.setPassword(encoder.encode(register.getPassword()));
+        user.setPassword(hashingExecutor.execute(() -> encoder.encode(register.getPassword())));
         manager.createUser(user);
         var jwt = jwtService.generateToken(new SecurityUser(user));
         log.info("User {} successfully registered", register.getUsername());
-        return new JwtAuthenticationResponse(jwt);
+        return new JwtAuthenticationResponse(jwt, refreshTokenService.issue(user.getId()));
+    }
+
+    /**
+     * Метод для обновления токена доступа
+     * <p>
+     * Обменивает токен обновления на новый и выдает новый токен доступа с актуальной ролью пользователя.
+     * Пароль не проверяется, поэтому обновление не занимает {@link PasswordHashingExecutor}
+     *
+     * @param refreshToken - токен обновления
+     * @return DTO сгенерированных токенов
+     * @throws InvalidRefreshTokenException если токен недействителен, повторно использован
+     *                                      или пользователь заблокирован
+     */
+
+    public JwtAuthenticationResponse refresh(@NotNull String refreshToken) {
+        log.info("Method of the refresh user's token start");
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        var jwt = jwtService.generateToken(new SecurityUser(rotation.user()));
+        log.info("User {} successfully refreshed token", rotation.user().getUsername());
+        return new JwtAuthenticationResponse(jwt, rotation.refreshToken());
     }
 }
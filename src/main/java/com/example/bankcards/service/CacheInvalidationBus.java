@@ -0,0 +1,292 @@
+package com.example.bankcards.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Шина инвалидации локальных кэшей между узлами приложения
+ * <p>
+ * Изменения публикуются через {@code pg_notify} в соединении текущей транзакции, поэтому PostgreSQL
+ * доставляет уведомление только после фиксации и отбрасывает его при откате. Каждый узел держит отдельное
+ * соединение с {@code LISTEN} и передает полученные ключи подписчикам своих кэшей.
+ * Ключи кодируются как в URL, поэтому запятая-разделитель не встречается внутри ключа
+ * (имя пользователя может содержать любые символы), а длина уведомления в байтах равна длине строки.
+ * </p>
+ * <p>
+ * Уведомления, отправленные пока узел не слушал канал, теряются, поэтому при разрыве соединения
+ * и после переподключения подписчики очищают кэши полностью. На базе, отличной от PostgreSQL, шина отключается
+ * и кэши согласуются только локально.
+ * </p>
+ * <p>
+ * Соединение для {@code LISTEN} берется из пула и занято слушателем все время работы узла, поэтому
+ * запросам остается на одно соединение меньше {@code spring.datasource.hikari.maximum-pool-size}.
+ * Перед возвратом в пул подписка снимается {@code UNLISTEN *}, иначе уведомления копились бы
+ * в соединении, которое затем получит другой запрос.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus implements MeterBinder {
+
+    public static final String CARDS = "card";
+    public static final String USERS = "user";
+
+    /**
+     * Предел полезной нагрузки NOTIFY - 8000 байт, ключи отправляются порциями с запасом
+     */
+    private static final int MAX_PAYLOAD = 7000;
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final char TOPIC_SEPARATOR = ':';
+    private static final char KEY_SEPARATOR = ',';
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+    private final Duration reconnectDelay;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+
+    private volatile boolean enabled;
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread listener;
+
+    public CacheInvalidationBus(DataSource dataSource,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${bank.cache.invalidation.enabled}") boolean enabled,
+                                @Value("${bank.cache.invalidation.channel}") String channel,
+                                @Value("${bank.cache.invalidation.reconnect-delay}") Duration reconnectDelay) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Некорректное имя канала: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    /**
+     * Подписывает локальный кэш на инвалидации
+     *
+     * @param topic    тип сущности
+     * @param evict    удаление записи по ключу
+     * @param evictAll полная очистка кэша
+     */
+    public void subscribe(String topic, Consumer<String> evict, Runnable evictAll) {
+        subscriptions.add(new Subscription(topic, evict, evictAll));
+    }
+
+    /**
+     * Публикует ключи измененных сущностей для всех узлов
+     * <p>
+     * Внутри транзакции уведомление будет доставлено после ее фиксации.
+     * </p>
+     *
+     * @param topic тип сущности
+     * @param keys  ключи измененных сущностей
+     */
+    public void publish(String topic, Collection<?> keys) {
+        if (!enabled || keys.isEmpty()) {
+            return;
+        }
+        for (String payload : payloads(topic, keys)) {
+            jdbcTemplate.query("select pg_notify(?, ?)", (RowCallbackHandler) rs -> {
+            }, channel, payload);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            enabled = connection.isWrapperFor(PGConnection.class);
+        } catch (SQLException e) {
+            log.warn("Cache invalidation bus could not check database: {}", e.getMessage());
+        }
+        if (!enabled) {
+            log.info("Cache invalidation bus disabled, database does not support LISTEN/NOTIFY");
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (listener != null) {
+            listener.join(POLL_TIMEOUT_MILLIS * 2L);
+        }
+    }
+
+    /**
+     * Слушает канал до остановки, при ошибке очищает кэши и подключается заново
+     */
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try {
+                    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                    listening = true;
+                    if (connectedBefore) {
+                        log.info("Cache invalidation bus reconnected to channel {}", channel);
+                        flushAll();
+                    }
+                    connectedBefore = true;
+                    while (running) {
+                        PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                        if (notifications != null) {
+                            for (PGNotification notification : notifications) {
+                                dispatch(notification.getParameter());
+                            }
+                        }
+                    }
+                } finally {
+                    unlisten(connection);
+                }
+            } catch (SQLException | RuntimeException e) {
+                listening = false;
+                log.warn("Cache invalidation bus lost channel {}: {}", channel, e.getMessage());
+                flushAll();
+                sleep(reconnectDelay);
+            }
+        }
+        listening = false;
+    }
+
+    /**
+     * Снимает подписки соединения перед возвратом в пул
+     * <p>
+     * Если соединение разорвано, команда завершится ошибкой, и пул сам отбросит такое соединение.
+     *
+     * @param connection соединение слушателя
+     */
+    private static void unlisten(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("UNLISTEN *");
+        } catch (SQLException e) {
+            log.debug("Cache invalidation bus could not unlisten: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Передает ключи из уведомления подписчикам
+     *
+     * @param payload тип сущности и закодированные ключи через запятую
+     */
+    void dispatch(String payload) {
+        int separator = payload.indexOf(TOPIC_SEPARATOR);
+        if (separator < 0) {
+            log.warn("Cache invalidation bus ignored malformed payload {}", payload);
+            return;
+        }
+        received.incrementAndGet();
+        String topic = payload.substring(0, separator);
+        String[] keys = payload.substring(separator + 1).split(String.valueOf(KEY_SEPARATOR));
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.topic().equals(topic)) {
+                continue;
+            }
+            for (String key : keys) {
+                try {
+                    subscription.evict().accept(URLDecoder.decode(key, StandardCharsets.UTF_8));
+                } catch (RuntimeException e) {
+                    log.warn("Cache invalidation of {} {} failed, flushing: {}", topic, key, e.getMessage());
+                    subscription.evictAll().run();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Полностью очищает все подписанные кэши
+     */
+    void flushAll() {
+        flushes.incrementAndGet();
+        subscriptions.forEach(subscription -> subscription.evictAll().run());
+    }
+
+    static List<String> payloads(String topic, Collection<?> keys) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(topic).append(TOPIC_SEPARATOR);
+        int empty = payload.length();
+        for (Object key : keys) {
+            String value = URLEncoder.encode(String.valueOf(key), StandardCharsets.UTF_8);
+            if (payload.length() > empty && payload.length() + value.length() + 1 > MAX_PAYLOAD) {
+                payloads.add(payload.toString());
+                payload.setLength(empty);
+            }
+            if (payload.length() > empty) {
+                payload.append(KEY_SEPARATOR);
+            }
+            payload.append(value);
+        }
+        payloads.add(payload.toString());
+        return payloads;
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        FunctionCounter.builder("cache.invalidation.received", received, AtomicLong::get)
+                .description("Полученные уведомления об инвалидации")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidation.flushes", flushes, AtomicLong::get)
+                .description("Полные очистки кэшей из-за пропущенных уведомлений")
+                .register(registry);
+        Gauge.builder("cache.invalidation.listening", this, bus -> bus.listening ? 1 : 0)
+                .description("Слушает ли узел канал инвалидации")
+                .register(registry);
+    }
+
+    private record Subscription(String topic, Consumer<String> evict, Runnable evictAll) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Кэш карт и балансов для чтения
+ * <p>
+ * Изменяющие операции вызывают {@link #invalidate(Collection)}, который удаляет записи после фиксации
+ * транзакции. Загрузка и удаление одного ключа в Caffeine взаимно исключаются, поэтому значение,
+ * прочитанное до фиксации, не переживает удаление и после фиксации перевода старый баланс не отдается.
+ * Другие узлы получают идентификаторы через {@link CacheInvalidationBus}.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Component
+public class CardCache implements MeterBinder {
+
+    private final Cache<UUID, CardDto> cards;
+    private final Cache<UUID, BigDecimal> balances;
+    private final CacheInvalidationBus invalidationBus;
+
+    public CardCache(CacheInvalidationBus invalidationBus,
+                     @Value("${bank.card.cache.max-size}") long maxSize,
+                     @Value("${bank.card.cache.ttl}") Duration ttl) {
+        this.cards = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.balances = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(CacheInvalidationBus.CARDS,
+                key -> evict(List.of(UUID.fromString(key))), this::invalidateAll);
+    }
+
+    /**
+     * Карта из кэша, при промахе загружается
+     *
+     * @param id     идентификатор карты
+     * @param loader загрузка карты из базы
+     * @return карта
+     */
+    public CardDto card(UUID id, Function<UUID, CardDto> loader) {
+        return cards.get(id, loader);
+    }
+
+    /**
+     * Баланс карты из кэша, при промахе загружается
+     *
+     * @param id     идентификатор карты
+     * @param loader загрузка баланса из базы
+     * @return баланс
+     */
+    public BigDecimal balance(UUID id, Function<UUID, BigDecimal> loader) {
+        return balances.get(id, loader);
+    }
+
+    /**
+     * Удаляет карты из кэша после фиксации текущей транзакции, а вне транзакции - сразу,
+     * и публикует их для остальных узлов
+     *
+     * @param ids идентификаторы измененных карт
+     */
+    public void invalidate(Collection<UUID> ids) {
+        invalidationBus.publish(CacheInvalidationBus.CARDS, ids);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(ids);
+            return;
+        }
+        List<UUID> snapshot = List.copyOf(ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(snapshot);
+            }
+        });
+    }
+
+    /**
+     * Очищает кэш полностью
+     */
+    public void invalidateAll() {
+        cards.invalidateAll();
+        balances.invalidateAll();
+    }
+
+    private void evict(Collection<UUID> ids) {
+        cards.invalidateAll(ids);
+        balances.invalidateAll(ids);
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cards, "cards");
+        CaffeineCacheMetrics.monitor(registry, balances, "card.balances");
+    }
+}
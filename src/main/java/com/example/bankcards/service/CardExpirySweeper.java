@@ -0,0 +1,112 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновый перевод карт с истекшим сроком действия в статус {@code EXPIRED}.
+ * <p>
+ * Карты обрабатываются порциями, каждая порция в отдельной транзакции: строки порции блокируются
+ * с пропуском уже заблокированных и обновляются одним UPDATE. Поэтому задача может одновременно
+ * выполняться на нескольких узлах, а блокировки держатся недолго и не мешают переводам.
+ * Измененные карты удаляются из {@link CardCache} после фиксации порции.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Slf4j
+@Component
+public class CardExpirySweeper implements MeterBinder {
+
+    private final CardRepository cardRepository;
+    private final CardCache cardCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private volatile double lastThroughput;
+
+    public CardExpirySweeper(CardRepository cardRepository,
+                             CardCache cardCache,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${bank.card.expiry.chunk-size}") int chunkSize) {
+        this.cardRepository = cardRepository;
+        this.cardCache = cardCache;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Переводит в статус {@code EXPIRED} все активные карты со сроком действия раньше текущей даты
+     *
+     * @return количество карт, измененных этим узлом
+     */
+    @Scheduled(fixedDelayString = "${bank.card.expiry.interval}",
+            initialDelayString = "${bank.card.expiry.interval}")
+    public int sweep() {
+        LocalDate today = LocalDate.now(Clock.systemDefaultZone());
+        long started = System.nanoTime();
+        int total = 0;
+        int chunk;
+        do {
+            Integer updated = transactionTemplate.execute(status -> expireChunk(today));
+            chunk = updated == null ? 0 : updated;
+            total += chunk;
+        } while (chunk == chunkSize);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        lastThroughput = total / seconds;
+        if (total > 0) {
+            log.info("Card expiry sweep expired {} cards in {} s", total, String.format("%.3f", seconds));
+        }
+        return total;
+    }
+
+    /**
+     * Обрабатывает одну порцию; заблокированные строки не могут измениться до конца транзакции,
+     * поэтому обновляются все выбранные карты
+     *
+     * @return количество измененных карт
+     */
+    private int expireChunk(LocalDate today) {
+        List<UUID> ids = cardRepository.lockExpiredIds(today, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int updated = cardRepository.expireAll(ids);
+        cardCache.invalidate(ids);
+        chunks.incrementAndGet();
+        expired.addAndGet(updated);
+        return updated;
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        FunctionCounter.builder("cards.expiry.expired", expired, AtomicLong::get)
+                .description("Карты, переведенные в статус EXPIRED")
+                .register(registry);
+        FunctionCounter.builder("cards.expiry.chunks", chunks, AtomicLong::get)
+                .description("Обработанные порции карт")
+                .register(registry);
+        Gauge.builder("cards.expiry.throughput", this, sweeper -> sweeper.lastThroughput)
+                .description("Карт в секунду за последний проход")
+                .baseUnit("cards/s")
+                .register(registry);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardIssueRequest;
+import com.example.bankcards.dto.CardIssueResult;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Status;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumberAllocator;
+import com.example.bankcards.util.CardNumberHasher;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис пакетного выпуска карт.
+ * <p>
+ * Строки пакета читаются окнами по {@code chunk-size}: владельцы окна проверяются одним запросом IN,
+ * а карты вставляются пакетами JDBC в транзакциях по {@code chunk-size} карт. Результат строки отдается
+ * получателю сразу после фиксации транзакции с ее последней картой, поэтому ни пакет, ни результаты
+ * не накапливаются в памяти целиком.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Slf4j
+@Service
+public class CardIssueService {
+
+    private static final String MALFORMED = "Некорректная строка пакета";
+    private static final String OWNER_MISSING = "Не указан владелец карты";
+    private static final String OWNER_NOT_FOUND = "Пользователь не найден";
+
+    private final CardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final CardNumberAllocator cardNumberAllocator;
+    private final CardNumberHasher cardNumberHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxCount;
+
+    /**
+     * @param chunkSize количество строк в окне проверки владельцев и карт в одной транзакции
+     * @param maxCount  максимальное количество карт в одной строке пакета
+     */
+    public CardIssueService(CardRepository cardRepository,
+                            UserRepository userRepository,
+                            CardNumberAllocator cardNumberAllocator,
+                            CardNumberHasher cardNumberHasher,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${bank.card.issue.chunk-size}") int chunkSize,
+                            @Value("${bank.card.issue.max-count}") int maxCount) {
+        this.cardRepository = cardRepository;
+        this.userRepository = userRepository;
+        this.cardNumberAllocator = cardNumberAllocator;
+        this.cardNumberHasher = cardNumberHasher;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.maxCount = maxCount;
+    }
+
+    /**
+     * Выпускает карты по строкам пакета.
+     * <p>
+     * Ошибка в строке не прерывает пакет. Если транзакция части не зафиксирована, строки с картами этой части
+     * отклоняются, а карты, выпущенные по ним в предыдущих частях, остаются в результате.
+     * </p>
+     *
+     * @param rows строки пакета
+     * @param sink получатель результатов в порядке следования строк
+     * @return количество выпущенных карт
+     */
+    public long issue(@NotNull Iterator<CardIssueRequest> rows, @NotNull Consumer<CardIssueResult> sink) {
+        long issued = 0;
+        int offset = 0;
+        List<CardIssueRequest> window = new ArrayList<>(chunkSize);
+        while (rows.hasNext()) {
+            window.add(rows.next());
+            if (window.size() == chunkSize || !rows.hasNext()) {
+                issued += issueWindow(window, offset, sink);
+                offset += window.size();
+                window.clear();
+            }
+        }
+        log.info("Bulk issue of {} rows processed, {} cards issued", offset, issued);
+        return issued;
+    }
+
+    private long issueWindow(List<CardIssueRequest> window, int offset, Consumer<CardIssueResult> sink) {
+        Set<Long> ownerIds = window.stream()
+                .map(CardIssueRequest::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> owners = ownerIds.isEmpty() ? Set.of() : userRepository.findExistingIds(ownerIds);
+
+        long issued = 0;
+        List<CardIssueResult> pending = new ArrayList<>();
+        List<CardIssueResult> chunk = new ArrayList<>(chunkSize);
+        for (int i = 0; i < window.size(); i++) {
+            CardIssueRequest row = window.get(i);
+            String error = validate(row, owners);
+            if (error != null) {
+                pending.add(CardIssueResult.rejected(offset + i, row.getUserId(), error));
+                continue;
+            }
+            CardIssueResult result = CardIssueResult.ok(offset + i, row.getUserId(), row.getCount());
+            for (int n = 0; n < row.getCount(); n++) {
+                chunk.add(result);
+                if (chunk.size() == chunkSize) {
+                    issued += insertChunk(chunk);
+                    chunk.clear();
+                }
+            }
+            pending.add(result);
+            if (chunk.isEmpty()) {
+                pending.forEach(sink);
+                pending.clear();
+            }
+        }
+        issued += insertChunk(chunk);
+        pending.forEach(sink);
+        return issued;
+    }
+
+    private String validate(CardIssueRequest row, Set<Long> owners) {
+        if (row.isMalformed()) {
+            return MALFORMED;
+        }
+        if (row.getUserId() == null) {
+            return OWNER_MISSING;
+        }
+        if (row.getCount() < 1 || row.getCount() > maxCount) {
+            return "Количество карт должно быть от 1 до " + maxCount;
+        }
+        if (!owners.contains(row.getUserId())) {
+            return OWNER_NOT_FOUND;
+        }
+        return null;
+    }
+
+    /**
+     * Вставляет часть карт одной транзакцией и дописывает их идентификаторы в результаты строк
+     *
+     * @param chunk результат строки для каждой вставляемой карты
+     * @return количество вставленных карт
+     */
+    private int insertChunk(List<CardIssueResult> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        try {
+            List<Card> cards = transactionTemplate.execute(status -> {
+                LocalDate expiryDate = LocalDate.now(Clock.systemDefaultZone()).plusYears(CardService.VALIDITY_PERIOD);
+                List<String> cardNumbers = allocateNumbers(chunk.size());
+                List<Card> batch = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    Card card = new Card();
+                    card.setCardNumber(cardNumbers.get(i));
+                    card.setOwner(userRepository.getReferenceById(chunk.get(i).getUserId()));
+                    card.setStatus(Status.ACTIVE);
+                    card.setExpiryDate(expiryDate);
+                    card.setBalance(BigDecimal.ZERO);
+                    batch.add(card);
+                }
+                return cardRepository.saveAll(batch);
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.get(i).getCardIds().add(cards.get(i).getCardId());
+            }
+            return chunk.size();
+        } catch (DataAccessException e) {
+            log.warn("Bulk issue chunk of {} cards failed", chunk.size(), e);
+            // строка с несколькими картами встречается в части несколько раз, повторная отметка ничего не меняет
+            for (CardIssueResult result : chunk) {
+                result.setSuccess(false);
+                result.setMessage("Не удалось выпустить часть карт");
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Выдает номера для части карт
+     * <p>
+     * Номера, совпавшие с картами, выпущенными до перехода на BIN, заменяются. Занятость проверяется
+     * одним запросом на всю часть, а не запросом на каждую карту.
+     * </p>
+     *
+     * @param count количество номеров
+     * @return свободные номера
+     */
+    private List<String> allocateNumbers(int count) {
+        Map<String, String> byHash = new HashMap<>(count * 2);
+        while (byHash.size() < count) {
+            Map<String, String> candidates = new HashMap<>();
+            for (int i = byHash.size(); i < count; i++) {
+                String cardNumber = cardNumberAllocator.next();
+                candidates.put(cardNumberHasher.hash(cardNumber), cardNumber);
+            }
+            candidates.keySet().removeAll(cardRepository.findExistingNumberHashes(candidates.keySet()));
+            byHash.putAll(candidates);
+        }
+        return new ArrayList<>(byHash.values());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardNumberHasher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Заполнение вычисляемых из номера колонок ({@code card_last4}, {@code card_number_hash})
+ * для карт, созданных до их появления.
+ * <p>
+ * Номер карты хранится зашифрованным, поэтому миграция не может заполнить колонки сама.
+ * Карты обрабатываются при старте приложения порциями, каждая порция в отдельной транзакции.
+ * Повторяющиеся номера не получают слепой индекс, выводятся в лог для ручного разбора один раз
+ * и отмечаются {@code card_number_hash_skipped}, чтобы не перечитываться при каждом старте;
+ * последние цифры номера таким картам все равно записываются.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CardNumberBackfill implements ApplicationRunner {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final CardRepository cardRepository;
+    private final CardNumberHasher cardNumberHasher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        UUID after = new UUID(0, 0);
+        int total = 0;
+        while (after != null) {
+            UUID from = after;
+            List<Card> cards = transactionTemplate.execute(status -> backfillChunk(from));
+            total += cards == null ? 0 : cards.size();
+            after = cards == null || cards.isEmpty() ? null : cards.get(cards.size() - 1).getCardId();
+        }
+        if (total > 0) {
+            log.info("Card number derived columns backfilled for {} cards", total);
+        }
+    }
+
+    private List<Card> backfillChunk(UUID after) {
+        List<Card> cards = cardRepository.findWithoutNumberHash(after, CHUNK_SIZE);
+        for (Card card : cards) {
+            String last4 = Card.lastFour(card.getCardNumber());
+            String hash = cardNumberHasher.hash(card.getCardNumber());
+            if (cardRepository.existsByCardNumberHash(hash)) {
+                log.warn("Card {} has a duplicate card number, blind index is not set", card.getCardId());
+                cardRepository.markNumberHashSkipped(card.getCardId(), last4);
+                continue;
+            }
+            cardRepository.updateDerivedColumns(card.getCardId(), last4, hash);
+        }
+        return cards;
+    }
+}
@@ -1,28 +1,49 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardSearchDto;
+import com.example.bankcards.dto.CardSliceDto;
 import com.example.bankcards.dto.CardUpdateDto;
+import com.example.bankcards.dto.CardView;
+import com.example.bankcards.dto.TransferLeg;
+import com.example.bankcards.dto.TransferResult;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardTransaction;
 import com.example.bankcards.entity.Status;
+import com.example.bankcards.entity.TransactionType;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.CardNoSuchException;
 import com.example.bankcards.exception.MyIllegalArgumentException;
 import com.example.bankcards.exception.UserNoSuchException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardSpecifications;
+import com.example.bankcards.repository.CardTransactionRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.util.CardMapper;
+import com.example.bankcards.util.CardNumberAllocator;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.Utils;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.time.Clock;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collection;
-import java.util.Random;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 /**
  * Сервис для управления банковскими картами.
@@ -37,15 +58,31 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class CardService {
 
+    private static final String AMOUNT_NOT_POSITIVE = "Введите сумму больше нуля";
+    private static final String CARD_NOT_FOUND = "Карта не найдена";
+    private static final String NOT_OWNER = "Карта-отправитель не принадлежит пользователю";
+    private static final String CARD_HAS_HISTORY = "Карту с историей операций нельзя удалить, её можно заблокировать";
+    private static final int MAX_PAGE_SIZE = 100;
+    /**
+     * Срок действия новой карты в годах
+     */
+    static final int VALIDITY_PERIOD = 5;
+
     private final CardRepository cardRepository;
     private final CardMapper cardMapper;
     private final UserRepository userRepository;
+    private final CardTransactionRepository cardTransactionRepository;
+    private final CardNumberHasher cardNumberHasher;
+    private final CardNumberAllocator cardNumberAllocator;
+    private final CardCache cardCache;
+    private final Utils utils;
 
     /**
      * Создает новую банковскую карту для указанного пользователя.
      * <p>
-     * Карта создается с уникальным номером, нулевым балансом, активным статусом
-     * и сроком действия 5 лет с текущей даты.
+     * Карта создается с уникальным номером от {@link CardNumberAllocator}, нулевым балансом, активным статусом
+     * и сроком действия 5 лет с текущей даты. Номер, совпавший с картой, выпущенной до перехода на BIN,
+     * пропускается.
      * </p>
      *
      * @param userId идентификатор пользователя-владельца карты
@@ -53,11 +90,13 @@ public class CardService {
      * @throws UserNoSuchException если пользователь с указанным ID не найден
      */
     public CardDto create(Long userId) {
-        int VALIDITY_PERIOD = 5;
-
         User user = userRepository.findById(userId).orElseThrow(UserNoSuchException::new);
+        String cardNumber = cardNumberAllocator.next();
+        while (cardRepository.existsByCardNumberHash(cardNumberHasher.hash(cardNumber))) {
+            cardNumber = cardNumberAllocator.next();
+        }
         Card card = new Card();
-        card.setCardNumber(getNewNumber());
+        card.setCardNumber(cardNumber);
         card.setOwner(user);
         card.setStatus(Status.ACTIVE);
         card.setExpiryDate(LocalDate.now(Clock.systemDefaultZone()).plusYears(VALIDITY_PERIOD));
@@ -73,18 +112,53 @@ public class CardService {
      * @return коллекция DTO всех карт
      */
     public Collection<CardDto> findAll() {
-        return cardRepository.findAll().stream().map(cardMapper::toCardDto).toList();
+        return cardRepository.findAllViews().stream().map(cardMapper::toCardDto).toList();
+    }
+
+    /**
+     * Передает все карты получателю по одной, не загружая таблицу в память.
+     * <p>
+     * Используется для потоковой выгрузки: каждая карта отдается получателю сразу после чтения из курсора базы.
+     * </p>
+     *
+     * @param consumer получатель карт
+     */
+    @Transactional
+    public void exportAll(Consumer<CardDto> consumer) {
+        try (Stream<CardView> views = cardRepository.streamAllViews()) {
+            views.map(cardMapper::toCardDto).forEach(consumer);
+        }
     }
 
     /**
      * Находит карту по уникальному идентификатору.
+     * <p>
+     * Карта читается через {@link CardCache}.
+     * </p>
      *
      * @param id UUID карты
      * @return DTO найденной карты
      * @throws CardNoSuchException если карта с указанным ID не найдена
      */
     public CardDto findById(UUID id) {
-        return cardMapper.toCardDto(cardRepository.findById(id).orElseThrow(CardNoSuchException::new));
+        return cardCache.card(id, key ->
+                cardMapper.toCardDto(cardRepository.findViewById(key).orElseThrow(CardNoSuchException::new)));
+    }
+
+    /**
+     * Находит карту по номеру.
+     * <p>
+     * Поиск выполняется по слепому индексу номера одним запросом по уникальному индексу,
+     * без расшифровки номеров других карт.
+     * </p>
+     *
+     * @param cardNumber номер карты, допускаются пробелы
+     * @return DTO найденной карты
+     * @throws CardNoSuchException если карта с указанным номером не найдена
+     */
+    public CardDto findByCardNumber(@NotNull String cardNumber) {
+        String hash = cardNumberHasher.hash(utils.transformNumber(cardNumber));
+        return cardMapper.toCardDto(cardRepository.findByCardNumberHash(hash).orElseThrow(CardNoSuchException::new));
     }
 
     /**
@@ -97,91 +171,304 @@ public class CardService {
      */
     public Collection<CardDto> findByOwnerId(long ownerId, int page, int size) {
         PageRequest pageRequest = PageRequest.of(page - 1, size);
-        return cardRepository.findByOwnerId(ownerId, pageRequest).getContent().stream().map(cardMapper::toCardDto).toList();
+        return cardRepository.findViewsByOwnerId(ownerId, pageRequest).stream().map(cardMapper::toCardDto).toList();
+    }
+
+    /**
+     * Находит карты владельца постранично по курсору.
+     * <p>
+     * Курсор содержит идентификатор последней карты предыдущей страницы, поэтому запрос
+     * не пропускает строки смещением и не считает их общее количество.
+     * </p>
+     *
+     * @param ownerId идентификатор владельца карт
+     * @param cursor  курсор, полученный с предыдущей страницей, или null для первой страницы
+     * @param size    количество элементов на странице
+     * @return страница карт и курсор следующей страницы
+     * @throws MyIllegalArgumentException если курсор или размер страницы некорректны
+     */
+    public CardSliceDto findByOwnerIdAfter(long ownerId, String cursor, int size) {
+        checkPageSize(size);
+        UUID after = decodeCursor(cursor);
+        return toSlice(cardRepository.findViewsByOwnerIdAfter(ownerId, after, PageRequest.of(0, size + 1)), size);
+    }
+
+    /**
+     * Находит карты по условиям поиска постранично по курсору.
+     * <p>
+     * Условия собираются в {@link CardSpecifications}, незаполненные условия не ограничивают выборку.
+     * Карты упорядочены по идентификатору, курсор совместим с {@link #findByOwnerIdAfter}.
+     * </p>
+     *
+     * @param filter условия поиска
+     * @param cursor курсор, полученный с предыдущей страницей, или null для первой страницы
+     * @param size   количество элементов на странице
+     * @return страница карт и курсор следующей страницы
+     * @throws MyIllegalArgumentException если курсор или размер страницы некорректны
+     */
+    public CardSliceDto search(@NotNull CardSearchDto filter, String cursor, int size) {
+        checkPageSize(size);
+        Specification<Card> specification = CardSpecifications.matching(filter)
+                .and(CardSpecifications.idAfter(decodeCursor(cursor)));
+        return toSlice(cardRepository.findViews(specification, size + 1), size);
     }
 
     /**
      * Удаляет карту по идентификатору.
+     * <p>
+     * Удалить можно только карту без движения денег: журнал только дополняется, и удаление записей карты
+     * оставило бы у её переводов только сторону второй карты. Карту с историей операций нужно заблокировать.
+     * Карта удаляется одним DELETE, причина отказа определяется вторым запросом, только если строка не удалена.
+     * </p>
      *
      * @param id UUID карты для удаления
-     * @throws CardNoSuchException если карта с указанным ID не найдена
+     * @throws CardNoSuchException        если карта с указанным ID не найдена
+     * @throws MyIllegalArgumentException если у карты есть записи в журнале
      */
+    @Transactional
     public void delete(UUID id) {
-        if (!cardRepository.existsById(id)) {
+        if (cardRepository.deleteCardById(id) == 0) {
+            if (cardRepository.existsById(id)) {
+                throw new MyIllegalArgumentException(CARD_HAS_HISTORY);
+            }
             throw new CardNoSuchException();
         }
-        cardRepository.deleteById(id);
+        cardCache.invalidate(List.of(id));
     }
 
     /**
      * Изменяет статус карты.
+     * <p>
+     * Статус меняется одним UPDATE без загрузки карты и расшифровки номера, отсутствие карты
+     * определяется по количеству измененных строк.
+     * </p>
      *
      * @param id     идентификатор карты в виде строки
      * @param status новый статус карты
-     * @return DTO обновленной карты
      * @throws CardNoSuchException      если карта с указанным ID не найдена
-     * @throws IllegalArgumentException если передан невалидный статус
+     * @throws IllegalArgumentException если передан невалидный идентификатор или статус
      */
-    public CardDto setStatus(String id, String status) {
-        Card card = cardRepository.findById(UUID.fromString(id)).orElseThrow(CardNoSuchException::new);
-        card.setStatus(Status.valueOf(status));
-        return cardMapper.toCardDto(cardRepository.save(card));
+    @Transactional
+    public void setStatus(String id, String status) {
+        UUID cardId = UUID.fromString(id);
+        if (cardRepository.updateStatus(cardId, Status.valueOf(status)) == 0) {
+            throw new CardNoSuchException();
+        }
+        cardCache.invalidate(List.of(cardId));
     }
 
     /**
      * Обновляет информацию о карте.
+     * <p>
+     * Карта загружается один раз вместе с владельцем и блокируется до фиксации транзакции, поэтому
+     * параллельный перевод не может изменить баланс между чтением и записью. Изменения записываются
+     * при фиксации только в измененные колонки. Изменение баланса администратором записывается в журнал как корректировка.
+     * </p>
      *
      * @param card DTO с обновленными данными карты
      * @return DTO обновленной карты
+     * @throws CardNoSuchException если карта с указанным ID не найдена
      */
+    @Transactional
     public CardDto update(CardUpdateDto card) {
-        return cardMapper.toCardDto(cardRepository.save(cardMapper.toEntity(card)));
+        Card entity = cardRepository.findWithOwnerById(card.getId()).orElseThrow(CardNoSuchException::new);
+        return apply(entity, card);
+    }
+
+    /**
+     * Частично обновляет информацию о карте (JSON Merge Patch, RFC 7396).
+     * <p>
+     * Текущие данные карты передаются в {@code patch}, который возвращает данные после применения патча.
+     * Номер карты перешифровывается, только если он изменился.
+     * </p>
+     *
+     * @param id    UUID карты
+     * @param patch применение патча к текущим данным карты
+     * @return DTO обновленной карты
+     * @throws CardNoSuchException если карта с указанным ID не найдена
+     */
+    @Transactional
+    public CardDto patch(UUID id, @NotNull UnaryOperator<CardUpdateDto> patch) {
+        Card entity = cardRepository.findWithOwnerById(id).orElseThrow(CardNoSuchException::new);
+        CardUpdateDto patched = patch.apply(cardMapper.toCardUpdateDto(entity));
+        patched.setId(id);
+        return apply(entity, patched);
     }
 
+    private CardDto apply(Card entity, CardUpdateDto changes) {
+        BigDecimal before = entity.getBalance() == null ? BigDecimal.ZERO : entity.getBalance();
+        cardMapper.updateEntity(changes, entity);
+        BigDecimal after = entity.getBalance() == null ? BigDecimal.ZERO : entity.getBalance();
+        BigDecimal delta = after.subtract(before);
+        if (delta.signum() != 0) {
+            cardTransactionRepository.save(new CardTransaction(UUID.randomUUID(), entity.getCardId(),
+                    TransactionType.ADJUSTMENT, delta));
+        }
+        cardCache.invalidate(List.of(entity.getCardId()));
+        return cardMapper.toCardDto(entity);
+    }
+
+    /**
+     * Возвращает баланс карты.
+     * <p>
+     * Баланс читается через {@link CardCache} одним запросом без загрузки и расшифровки номера карты.
+     * </p>
+     *
+     * @param id UUID карты
+     * @return баланс карты
+     * @throws CardNoSuchException если карта с указанным ID не найдена
+     */
     public BigDecimal getBalance(UUID id) {
-        Card card = cardRepository.findById(id).orElseThrow(CardNoSuchException::new);
-        return card.getBalance();
+        return cardCache.balance(id, key -> cardRepository.findBalanceById(key).orElseThrow(CardNoSuchException::new));
     }
 
     /**
      * Выполняет перевод денег между двумя картами.
      * <p>
      * Операция выполняется в транзакционном контексте для обеспечения целостности данных.
+     * Обе карты блокируются одним запросом в порядке возрастания идентификатора, после чего
+     * списание выполняется условным UPDATE, а нехватка средств определяется по количеству измененных строк.
+     * Пара записей списания и зачисления добавляется в журнал одной пакетной вставкой.
+     * Балансы обеих карт удаляются из кэша после фиксации транзакции.
      * </p>
      *
      * @param cardId1 идентификатор карты-отправителя
      * @param cardId2 идентификатор карты-получателя
      * @param amount  сумма перевода (должна быть больше нуля)
      * @throws MyIllegalArgumentException если сумма меньше или равна нулю,
-     *                                    или на карте-отправителе недостаточно средств
+     *                                    на карте-отправителе недостаточно средств или она не активна
      * @throws CardNoSuchException        если одна из карт не найдена
      */
     @Transactional
     public void transferMoney(String cardId1, String cardId2, @NotNull BigDecimal amount) {
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new MyIllegalArgumentException("Введите сумму больше нуля");
+            throw new MyIllegalArgumentException(AMOUNT_NOT_POSITIVE);
+        }
+        UUID from = UUID.fromString(cardId1);
+        UUID to = UUID.fromString(cardId2);
+        Set<UUID> ids = from.equals(to) ? Set.of(from) : Set.of(from, to);
+        if (cardRepository.lockAllById(ids).size() != ids.size()) {
+            throw new CardNoSuchException();
         }
-        Card card1 = cardRepository.findById(UUID.fromString(cardId1)).orElseThrow(CardNoSuchException::new);
-        Card card2 = cardRepository.findById(UUID.fromString(cardId2)).orElseThrow(CardNoSuchException::new);
-        if (card1.getBalance().compareTo(amount) < 0) {
-            throw new MyIllegalArgumentException("Недостаточно денег");
+        List<CardTransaction> ledger = new ArrayList<>(2);
+        String error = debitAndCredit(from, to, amount, ledger);
+        if (error != null) {
+            throw new MyIllegalArgumentException(error);
         }
-        card1.setBalance(card1.getBalance().subtract(amount));
-        card2.setBalance(card2.getBalance().add(amount));
-        cardRepository.save(card1);
-        cardRepository.save(card2);
+        cardTransactionRepository.saveAll(ledger);
+        cardCache.invalidate(ids);
     }
 
     /**
-     * Генерирует новый уникальный номер карты
+     * Выполняет часть пакета переводов в одной транзакции.
      * <p>
-     * (при использовании в реальном банке может быть доработан, чтобы первые 8 цифр
-     * соответствовали платежной системе и наименованию банка)
+     * Все карты части блокируются одним запросом в порядке возрастания идентификатора, затем вторым
+     * запросом выбираются карты-отправители, принадлежащие пользователю.
+     * Отказ по отдельному переводу не откатывает остальные - он возвращается в результате перевода.
+     * Записи журнала по всей части добавляются одной пакетной вставкой.
+     * </p>
      *
-     * @return 16-значный номер карты в виде строки
+     * @param ownerId идентификатор пользователя, которому должны принадлежать карты-отправители
+     * @param legs    переводы
+     * @param offset  номер первого перевода части в пакете
+     * @return результаты переводов в порядке их следования
      */
-    private @NotNull String getNewNumber() {
-        Random random = new Random();
-        return Long.toString(random.nextLong(1000000000000000L, 9999999999999999L));
+    @Transactional
+    public List<TransferResult> transferChunk(long ownerId, @NotNull List<TransferLeg> legs, int offset) {
+        Set<UUID> ids = new HashSet<>();
+        Set<UUID> sources = new HashSet<>();
+        for (TransferLeg leg : legs) {
+            if (leg.getCardId1() != null && leg.getCardId2() != null) {
+                ids.add(leg.getCardId1());
+                ids.add(leg.getCardId2());
+                sources.add(leg.getCardId1());
+            }
+        }
+        Set<UUID> found = ids.isEmpty() ? Set.of() : new HashSet<>(cardRepository.lockAllById(ids));
+        sources.retainAll(found);
+        Set<UUID> owned = sources.isEmpty() ? Set.of() : cardRepository.findIdsByOwnerId(sources, ownerId);
+        List<CardTransaction> ledger = new ArrayList<>(legs.size() * 2);
+        List<TransferResult> results = new ArrayList<>(legs.size());
+        for (int i = 0; i < legs.size(); i++) {
+            TransferLeg leg = legs.get(i);
+            String error;
+            if (leg.getAmount() == null || leg.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                error = AMOUNT_NOT_POSITIVE;
+            } else if (leg.getCardId1() == null || leg.getCardId2() == null
+                    || !found.contains(leg.getCardId1()) || !found.contains(leg.getCardId2())) {
+                error = CARD_NOT_FOUND;
+            } else if (!owned.contains(leg.getCardId1())) {
+                error = NOT_OWNER;
+            } else {
+                error = debitAndCredit(leg.getCardId1(), leg.getCardId2(), leg.getAmount(), ledger);
+            }
+            results.add(error == null ? TransferResult.ok(offset + i) : TransferResult.rejected(offset + i, error));
+        }
+        if (!ledger.isEmpty()) {
+            cardTransactionRepository.saveAll(ledger);
+            cardCache.invalidate(found);
+        }
+        return results;
+    }
+
+    /**
+     * Списывает и зачисляет сумму по уже заблокированным картам.
+     *
+     * @param from   идентификатор карты-отправителя
+     * @param to     идентификатор карты-получателя
+     * @param amount сумма перевода
+     * @param ledger список, в который добавляются записи журнала
+     * @return причина отказа или null, если перевод выполнен
+     */
+    private String debitAndCredit(UUID from, UUID to, BigDecimal amount, List<CardTransaction> ledger) {
+        if (cardRepository.debit(from, amount) == 0) {
+            if (cardRepository.findStatusById(from).filter(Status.ACTIVE::equals).isEmpty()) {
+                return "Карта-отправитель не активна";
+            }
+            return "Недостаточно денег";
+        }
+        cardRepository.credit(to, amount);
+        UUID transferId = UUID.randomUUID();
+        ledger.add(new CardTransaction(transferId, from, TransactionType.DEBIT, amount.negate()));
+        ledger.add(new CardTransaction(transferId, to, TransactionType.CREDIT, amount));
+        return null;
+    }
+
+    private static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new MyIllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Собирает страницу из выборки, запрошенной с одной лишней строкой для определения следующей страницы
+     */
+    private CardSliceDto toSlice(List<CardView> views, int size) {
+        String nextCursor = null;
+        if (views.size() > size) {
+            views = views.subList(0, size);
+            nextCursor = encodeCursor(views.get(size - 1).id());
+        }
+        return new CardSliceDto(views.stream().map(cardMapper::toCardDto).toList(), nextCursor);
+    }
+
+    private static String encodeCursor(UUID id) {
+        ByteBuffer buffer = ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    private static UUID decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return new UUID(0, 0);
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor));
+            if (buffer.remaining() != 16) {
+                throw new IllegalArgumentException();
+            }
+            return new UUID(buffer.getLong(), buffer.getLong());
+        } catch (IllegalArgumentException e) {
+            throw new MyIllegalArgumentException("Некорректный курсор");
+        }
     }
 }
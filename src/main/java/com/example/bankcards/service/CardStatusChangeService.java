@@ -0,0 +1,117 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardStatusChangeDto;
+import com.example.bankcards.dto.CardStatusChangeResult;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.MyIllegalArgumentException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardSpecifications;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Сервис массовой смены статуса карт.
+ * <p>
+ * Карты обновляются порциями по {@code chunk-size}, каждая порция в отдельной транзакции одним UPDATE
+ * по списку идентификаторов, поэтому сущности карт не загружаются, номера не расшифровываются,
+ * а блокировки держатся недолго. При выборке по условиям идентификаторы порции блокируются запросом
+ * по индексу в порядке возрастания, и следующая порция начинается после последнего из них.
+ * Измененные карты удаляются из {@link CardCache} после фиксации порции.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Slf4j
+@Service
+public class CardStatusChangeService {
+
+    private final CardRepository cardRepository;
+    private final CardCache cardCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public CardStatusChangeService(CardRepository cardRepository,
+                                   CardCache cardCache,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${bank.card.status-change.chunk-size}") int chunkSize) {
+        this.cardRepository = cardRepository;
+        this.cardCache = cardCache;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Устанавливает новый статус картам из списка или удовлетворяющим условиям
+     *
+     * @param change карты и новый статус
+     * @return количество карт, статус которых изменился
+     * @throws MyIllegalArgumentException если не заданы ни список карт, ни условия выборки
+     */
+    public CardStatusChangeResult changeStatus(@NotNull CardStatusChangeDto change) {
+        long started = System.nanoTime();
+        long updated = change.getIds() != null ? changeByIds(change) : changeByFilter(change);
+        log.info("Bulk status change to {} updated {} cards in {} ms", change.getTargetStatus(), updated,
+                (System.nanoTime() - started) / 1_000_000);
+        return new CardStatusChangeResult(updated);
+    }
+
+    private long changeByIds(CardStatusChangeDto change) {
+        if (change.getIds().isEmpty()) {
+            throw new MyIllegalArgumentException("Список карт пуст");
+        }
+        List<UUID> ids = change.getIds().stream().distinct().sorted().toList();
+        long updated = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            updated += updateChunk(chunk, change);
+        }
+        return updated;
+    }
+
+    private long changeByFilter(CardStatusChangeDto change) {
+        if (change.getOwnerId() == null && change.getStatus() == null && change.getExpiryBefore() == null) {
+            throw new MyIllegalArgumentException("Укажите список карт или хотя бы одно условие выборки");
+        }
+        Specification<Card> filter = CardSpecifications.matching(change);
+        long updated = 0;
+        UUID after = new UUID(0, 0);
+        while (true) {
+            Specification<Card> page = filter.and(CardSpecifications.idAfter(after));
+            List<UUID> chunk = transactionTemplate.execute(status -> {
+                List<UUID> ids = cardRepository.lockIds(page, chunkSize);
+                if (!ids.isEmpty()) {
+                    updateStatus(ids, change);
+                }
+                return ids;
+            });
+            if (chunk == null || chunk.isEmpty()) {
+                return updated;
+            }
+            // заблокированные строки уже отобраны без целевого статуса и не могут измениться до конца транзакции
+            updated += chunk.size();
+            if (chunk.size() < chunkSize) {
+                return updated;
+            }
+            after = chunk.get(chunk.size() - 1);
+        }
+    }
+
+    private int updateChunk(List<UUID> ids, CardStatusChangeDto change) {
+        Integer updated = transactionTemplate.execute(status -> updateStatus(ids, change));
+        return updated == null ? 0 : updated;
+    }
+
+    private int updateStatus(List<UUID> ids, CardStatusChangeDto change) {
+        int updated = cardRepository.updateStatusAll(ids, change.getTargetStatus());
+        cardCache.invalidate(ids);
+        return updated;
+    }
+}
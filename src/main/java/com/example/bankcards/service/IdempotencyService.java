@@ -0,0 +1,139 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.IdempotencyKey;
+import com.example.bankcards.exception.MyIllegalArgumentException;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Сервис идемпотентного выполнения запросов.
+ * <p>
+ * Ключ сохраняется в той же транзакции, что и само действие, поэтому повтор запроса с тем же ключом
+ * не выполняет действие ещё раз. Ключи уникальны в пределах пользователя. Перед таблицей стоит ограниченный
+ * кэш Caffeine, так что типичный повтор после таймаута обслуживается без обращения к базе. Просроченный ключ
+ * считается отсутствующим, даже если фоновая задача ещё не удалила его.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Duration ttl;
+    private final int purgeChunkSize;
+    private final Cache<IdempotencyKey.KeyId, CachedKey> cache;
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              @Value("${bank.idempotency.ttl}") Duration ttl,
+                              @Value("${bank.idempotency.cache-size}") int cacheSize,
+                              @Value("${bank.idempotency.purge-chunk-size}") int purgeChunkSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.ttl = ttl;
+        this.purgeChunkSize = purgeChunkSize;
+        this.cache = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(ttl).build();
+    }
+
+    /**
+     * Выполняет действие не более одного раза для данного ключа пользователя.
+     * <p>
+     * Если ключ уже использовался для того же запроса, действие не выполняется.
+     * Если действие завершилось исключением, транзакция откатывается вместе с ключом и запрос можно повторить.
+     * </p>
+     *
+     * @param username    владелец ключа
+     * @param key         ключ идемпотентности из заголовка запроса
+     * @param fingerprint отпечаток параметров запроса
+     * @param action      действие
+     * @return true, если действие выполнено, false - если это повтор уже выполненного запроса
+     * @throws MyIllegalArgumentException если ключ некорректен или уже использован для другого запроса
+     */
+    @Transactional
+    public boolean executeOnce(@NotNull String username, @NotNull String key, @NotNull String fingerprint,
+                               @NotNull Runnable action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new MyIllegalArgumentException("Ключ идемпотентности должен содержать от 1 до " + MAX_KEY_LENGTH + " символов");
+        }
+        IdempotencyKey.KeyId id = new IdempotencyKey.KeyId(username, key);
+        LocalDateTime now = LocalDateTime.now(Clock.systemDefaultZone());
+        CachedKey cached = cache.getIfPresent(id);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return replay(key, cached.fingerprint(), fingerprint);
+        }
+        LocalDateTime expiresAt = now.plus(ttl);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (idempotencyKeyRepository.insertIfAbsent(username, key, fingerprint, now, expiresAt) == 1) {
+                action.run();
+                afterCommit(() -> cache.put(id, new CachedKey(fingerprint, expiresAt)));
+                return true;
+            }
+            // вставка вернула 0 - действующий ключ существовал; если его уже нет, вставка повторяется
+            Optional<IdempotencyKey> stored = idempotencyKeyRepository.findById(id);
+            if (stored.isPresent()) {
+                cache.put(id, new CachedKey(stored.get().getFingerprint(), stored.get().getExpiresAt()));
+                return replay(key, stored.get().getFingerprint(), fingerprint);
+            }
+        }
+        throw new IllegalStateException("Не удалось сохранить ключ идемпотентности " + key);
+    }
+
+    /**
+     * Удаляет просроченные ключи порциями, каждая порция - отдельной транзакцией.
+     */
+    @Scheduled(fixedDelayString = "${bank.idempotency.purge-interval}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now(Clock.systemDefaultZone());
+        int total = 0;
+        int deleted;
+        do {
+            deleted = idempotencyKeyRepository.deleteExpired(now, purgeChunkSize);
+            total += deleted;
+        } while (deleted == purgeChunkSize);
+        if (total > 0) {
+            log.info("Purged {} expired idempotency keys", total);
+        }
+    }
+
+    private boolean replay(String key, String storedFingerprint, String fingerprint) {
+        if (!storedFingerprint.equals(fingerprint)) {
+            throw new MyIllegalArgumentException("Ключ идемпотентности уже использован для другого запроса");
+        }
+        log.info("Idempotent replay for key {}", key);
+        return false;
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+
+    private record CachedKey(String fingerprint, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Фоновая сверка балансов карт с журналом движения денег.
+ * <p>
+ * Выполняется одним агрегирующим запросом без блокировок карт, поэтому не мешает переводам.
+ * Расхождения только логируются - исправление остается за администратором.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LedgerReconciliationJob {
+
+    private final CardTransactionRepository cardTransactionRepository;
+
+    @Scheduled(fixedDelayString = "${bank.ledger.reconciliation-interval}",
+            initialDelayString = "${bank.ledger.reconciliation-interval}")
+    public void reconcile() {
+        List<UUID> outOfBalance = cardTransactionRepository.findCardIdsOutOfBalance();
+        if (outOfBalance.isEmpty()) {
+            log.debug("Ledger reconciliation finished, all balances match");
+            return;
+        }
+        log.warn("Ledger reconciliation found {} cards out of balance: {}", outOfBalance.size(), outOfBalance);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.RefreshToken;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidRefreshTokenException;
+import com.example.bankcards.repository.RefreshTokenRepository;
+import com.example.bankcards.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Сервис токенов обновления с ротацией.
+ * <p>
+ * Токен обновления - случайная строка, в базе хранится только её SHA-256. Каждое обновление отмечает
+ * предъявленный токен использованным и выдает новый в той же цепочке. Повторное предъявление
+ * использованного токена означает, что он скопирован, поэтому вся цепочка отзывается и владельцу
+ * придется войти заново. Блокировка пользователя проверяется здесь же, так что токену доступа
+ * достаточно проверки в памяти.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final int purgeChunkSize;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * @param ttl            время жизни токена обновления
+     * @param purgeChunkSize количество просроченных токенов, удаляемых одной транзакцией
+     */
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               @Value("${token.refresh.ttl}") Duration ttl,
+                               @Value("${token.refresh.purge-chunk-size}") int purgeChunkSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.ttl = ttl;
+        this.purgeChunkSize = purgeChunkSize;
+    }
+
+    /**
+     * Выдает токен обновления новой цепочки при входе или регистрации
+     *
+     * @param userId идентификатор пользователя
+     * @return токен обновления
+     */
+    public String issue(@NotNull Long userId) {
+        return issue(userId, UUID.randomUUID());
+    }
+
+    /**
+     * Обменивает токен обновления на новый.
+     * <p>
+     * Если токен уже использован или отозван, вся его цепочка отзывается, и отзыв фиксируется,
+     * несмотря на исключение.
+     * </p>
+     *
+     * @param token предъявленный токен обновления
+     * @return владелец токена и новый токен обновления
+     * @throws InvalidRefreshTokenException если токен не найден, просрочен, повторно использован
+     *                                      или пользователь заблокирован
+     */
+    @Transactional(dontRollbackOn = InvalidRefreshTokenException.class)
+    public Rotation rotate(@NotNull String token) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(InvalidRefreshTokenException::new);
+        LocalDateTime now = LocalDateTime.now(Clock.systemDefaultZone());
+        if (refreshTokenRepository.markUsed(stored.getId(), now) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(stored.getFamilyId());
+            log.warn("Refresh token reuse for user {}, {} tokens of family {} revoked",
+                    stored.getUserId(), revoked, stored.getFamilyId());
+            throw new InvalidRefreshTokenException();
+        }
+        if (!stored.getExpiresAt().isAfter(now)) {
+            throw new InvalidRefreshTokenException();
+        }
+        User user = userRepository.findById(stored.getUserId())
+                .filter(User::isEnabled)
+                .orElse(null);
+        if (user == null) {
+            refreshTokenRepository.revokeFamily(stored.getFamilyId());
+            log.info("Refresh for disabled or deleted user {} rejected", stored.getUserId());
+            throw new InvalidRefreshTokenException();
+        }
+        return new Rotation(user, issue(user.getId(), stored.getFamilyId()));
+    }
+
+    /**
+     * Удаляет просроченные токены порциями, каждая порция - отдельной транзакцией.
+     */
+    @Scheduled(fixedDelayString = "${token.refresh.purge-interval}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now(Clock.systemDefaultZone());
+        int total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpired(now, purgeChunkSize);
+            total += deleted;
+        } while (deleted == purgeChunkSize);
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens", total);
+        }
+    }
+
+    private String issue(Long userId, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now(Clock.systemDefaultZone());
+        refreshTokenRepository.save(new RefreshToken(hash(token), familyId, userId, now, now.plus(ttl)));
+        return token;
+    }
+
+    /**
+     * Хеш токена для хранения и поиска
+     * <p>
+     * Токен содержит 256 случайных бит, поэтому соль и медленный хеш не нужны.
+     *
+     * @param token токен обновления
+     * @return SHA-256 в шестнадцатеричном виде
+     */
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    /**
+     * Результат ротации токена обновления
+     *
+     * @param user         владелец токена
+     * @param refreshToken новый токен обновления
+     */
+    public record Rotation(User user, String refreshToken) {
+    }
+}
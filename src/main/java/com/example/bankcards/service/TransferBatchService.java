@@ -0,0 +1,63 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransferLeg;
+import com.example.bankcards.dto.TransferResult;
+import com.example.bankcards.exception.MyIllegalArgumentException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сервис пакетных переводов.
+ * <p>
+ * Делит пакет на части заданного размера и выполняет каждую часть в отдельной транзакции
+ * через {@link CardService#transferChunk(long, List, int)}. Если размер части не меньше размера пакета,
+ * весь пакет выполняется в одной транзакции.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferBatchService {
+
+    private final CardService cardService;
+
+    @Value("${bank.transfer.batch.chunk-size}")
+    private int chunkSize;
+
+    @Value("${bank.transfer.batch.max-size}")
+    private int maxSize;
+
+    /**
+     * Выполняет пакет переводов с карт пользователя.
+     *
+     * @param ownerId идентификатор пользователя, которому должны принадлежать карты-отправители
+     * @param legs    переводы
+     * @return результаты переводов в порядке их следования в пакете
+     * @throws MyIllegalArgumentException если пакет пуст, превышает допустимый размер или содержит пустой перевод
+     */
+    public List<TransferResult> transfer(long ownerId, @NotNull List<TransferLeg> legs) {
+        if (legs.isEmpty() || legs.size() > maxSize) {
+            throw new MyIllegalArgumentException("Пакет должен содержать от 1 до " + maxSize + " переводов");
+        }
+        if (legs.contains(null)) {
+            throw new MyIllegalArgumentException("Пакет не должен содержать пустых переводов");
+        }
+        List<TransferResult> results = new ArrayList<>(legs.size());
+        for (int from = 0; from < legs.size(); from += chunkSize) {
+            List<TransferLeg> chunk = legs.subList(from, Math.min(from + chunkSize, legs.size()));
+            results.addAll(cardService.transferChunk(ownerId, chunk, from));
+        }
+        log.info("Batch of {} transfers processed, {} succeeded", legs.size(),
+                results.stream().filter(TransferResult::isSuccess).count());
+        return results;
+    }
+}
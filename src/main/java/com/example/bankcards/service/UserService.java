@@ -2,8 +2,11 @@ package com.example.bankcards.service;
 
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.MyIllegalArgumentException;
 import com.example.bankcards.exception.UserNoSuchException;
+import com.example.bankcards.repository.CardTransactionRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.VerifiedTokenCache;
 import com.example.bankcards.util.UserMapper;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +15,7 @@ import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -29,7 +33,10 @@ import java.util.UUID;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final CardTransactionRepository cardTransactionRepository;
     private final UserMapper userMapper;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final CacheInvalidationBus invalidationBus;
 
     /**
      * Находит пользователя по имени пользователя.
@@ -46,6 +53,7 @@ public class UserService {
      * Обновляет данные пользователя.
      * <p>
      * Метод выполняется в транзакционном контексте для обеспечения целостности данных.
+     * Проверенные токены заблокированного пользователя удаляются из кэша после фиксации транзакции.
      * </p>
      *
      * @param user DTO с обновленными данными пользователя
@@ -58,6 +66,10 @@ public class UserService {
             throw new UserNoSuchException();
         }
         User user1 = userRepository.getReferenceById(user.getId());
+        if (!user.isEnabled()) {
+            verifiedTokenCache.evictUser(user1.getUsername());
+        }
+        invalidationBus.publish(CacheInvalidationBus.USERS, List.of(user1.getUsername()));
         user1.setUsername(user.getUsername());
         user1.setRole(user.getRole());
         user1.setEnabled(user.isEnabled());
@@ -65,11 +77,19 @@ public class UserService {
     }
 
     /**
-     * Удаляет пользователя по идентификатору.
+     * Удаляет пользователя по идентификатору вместе с его картами.
+     * <p>
+     * Пользователя, по картам которого было движение денег, удалить нельзя, как и сами такие карты:
+     * журнал операций сохраняется, а пользователя нужно заблокировать.
+     * </p>
      *
      * @param id идентификатор пользователя для удаления
+     * @throws MyIllegalArgumentException если по картам пользователя есть записи в журнале
      */
     public void deleteUser(long id) {
+        if (cardTransactionRepository.existsByOwnerId(id)) {
+            throw new MyIllegalArgumentException("Пользователя с историей операций по картам нельзя удалить, его можно заблокировать");
+        }
         userRepository.deleteById(id);
     }
 
@@ -103,6 +123,8 @@ public class UserService {
         User user = userRepository.findById(id).orElseThrow(UserNoSuchException::new);
         user.setEnabled(false);
         userRepository.save(user);
+        verifiedTokenCache.evictUser(user.getUsername());
+        invalidationBus.publish(CacheInvalidationBus.USERS, List.of(user.getUsername()));
     }
 
     /**
@@ -0,0 +1,112 @@
+package com.example.bankcards.util;
+
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.exceptions.EncryptionOperationNotPossibleException;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Шифратор номеров карт на AES-GCM с заранее выведенным ключом
+ * <p>
+ * Ключ выводится из секрета один раз при создании, поэтому шифрование и расшифровка не повторяют
+ * дорогое PBE-выведение ключа. Шифртекст имеет вид {@code v1:base64(iv || ciphertext || tag)}.
+ * Значения без префикса версии считаются записанными прежним шифратором и расшифровываются им.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+public class AesGcmStringEncryptor implements StringEncryptor {
+
+    static final String VERSION_PREFIX = "v1:";
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final int KEY_LENGTH_BITS = 256;
+    private static final int KEY_ITERATIONS = 210_000;
+    private static final byte[] KEY_SALT = "bankcards:card-number:v1".getBytes(StandardCharsets.UTF_8);
+
+    private final SecretKey key;
+    private final StringEncryptor legacyEncryptor;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(AesGcmStringEncryptor::newCipher);
+
+    /**
+     * @param secret          секрет, из которого выводится ключ
+     * @param legacyEncryptor шифратор для значений, записанных до перехода на AES-GCM
+     */
+    public AesGcmStringEncryptor(String secret, StringEncryptor legacyEncryptor) {
+        this.key = deriveKey(secret);
+        this.legacyEncryptor = legacyEncryptor;
+    }
+
+    @Override
+    public String encrypt(String message) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            byte[] encrypted = cipher.doFinal(message.getBytes(StandardCharsets.UTF_8));
+            byte[] result = ByteBuffer.allocate(IV_LENGTH + encrypted.length).put(iv).put(encrypted).array();
+            return VERSION_PREFIX + Base64.getEncoder().encodeToString(result);
+        } catch (GeneralSecurityException e) {
+            throw new EncryptionOperationNotPossibleException(e);
+        }
+    }
+
+    @Override
+    public String decrypt(String encryptedMessage) {
+        if (!encryptedMessage.startsWith(VERSION_PREFIX)) {
+            return legacyEncryptor.decrypt(encryptedMessage);
+        }
+        try {
+            byte[] data = Base64.getDecoder().decode(encryptedMessage.substring(VERSION_PREFIX.length()));
+            if (data.length <= IV_LENGTH) {
+                throw new EncryptionOperationNotPossibleException();
+            }
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, data, 0, IV_LENGTH));
+            byte[] decrypted = cipher.doFinal(data, IV_LENGTH, data.length - IV_LENGTH);
+            return new String(decrypted, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new EncryptionOperationNotPossibleException(e);
+        }
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Выведение ключа AES из секрета через PBKDF2
+     *
+     * @param secret секрет
+     * @return ключ AES-256
+     */
+    private static SecretKey deriveKey(String secret) {
+        try {
+            PBEKeySpec spec = new PBEKeySpec(secret.toCharArray(), KEY_SALT, KEY_ITERATIONS, KEY_LENGTH_BITS);
+            byte[] keyBytes = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+            spec.clearPassword();
+            return new SecretKeySpec(keyBytes, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Не удалось вывести ключ шифрования", e);
+        }
+    }
+}
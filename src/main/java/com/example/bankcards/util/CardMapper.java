@@ -2,26 +2,22 @@ package com.example.bankcards.util;
 
 import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.dto.CardUpdateDto;
+import com.example.bankcards.dto.CardView;
 import com.example.bankcards.entity.Card;
-import com.example.bankcards.exception.CardNoSuchException;
-import com.example.bankcards.repository.CardRepository;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Component;
 
 @Component
 public class CardMapper {
-    private final CardRepository cardRepository;
     private final Utils utils;
 
-    public CardMapper(CardRepository cardRepository, Utils utils) {
-        this.cardRepository = cardRepository;
+    public CardMapper(Utils utils) {
         this.utils = utils;
     }
 
     public CardDto toCardDto(@NotNull Card card) {
         CardDto cardDto = new CardDto();
-        String cardNumber = card.getCardNumber();
-        cardDto.setCardNumber(utils.mask(cardNumber));
+        cardDto.setCardNumber(utils.mask(card.getCardLast4()));
         cardDto.setOwnerName(card.getOwner().getUsername());
         cardDto.setStatus(card.getStatus());
         cardDto.setBalance(card.getBalance());
@@ -30,12 +26,32 @@ public class CardMapper {
         return cardDto;
     }
 
-    public Card toEntity(@NotNull CardUpdateDto card) {
-        Card card1 = cardRepository.findById(card.getId()).orElseThrow(CardNoSuchException::new);
-        card1.setCardNumber(utils.transformNumber(card.getCardNumber()));
-        card1.setExpiryDate(card.getExpiryDate());
-        card1.setBalance(card.getBalance());
-        card1.setStatus(card.getStatus());
-        return cardRepository.save(card1);
+    public CardDto toCardDto(@NotNull CardView card) {
+        return new CardDto(card.id(), utils.mask(card.cardLast4()), card.expiryDate(), card.status(),
+                card.balance(), card.ownerName());
+    }
+
+    public CardUpdateDto toCardUpdateDto(@NotNull Card card) {
+        return new CardUpdateDto(card.getCardId(), card.getCardNumber(), card.getExpiryDate(), card.getStatus(),
+                card.getBalance());
+    }
+
+    /**
+     * Переносит данные из DTO в загруженную карту без обращения к базе
+     * <p>
+     * Неизмененные значения не делают поля грязными, поэтому при {@code @DynamicUpdate}
+     * в UPDATE попадают только действительно измененные колонки.
+     *
+     * @param changes новые данные карты
+     * @param card    карта из контекста персистентности
+     */
+    public void updateEntity(@NotNull CardUpdateDto changes, @NotNull Card card) {
+        String cardNumber = utils.transformNumber(changes.getCardNumber());
+        if (!cardNumber.equals(card.getCardNumber())) {
+            card.setCardNumber(cardNumber);
+        }
+        card.setExpiryDate(changes.getExpiryDate());
+        card.setBalance(changes.getBalance());
+        card.setStatus(changes.getStatus());
     }
 }
@@ -0,0 +1,153 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.repository.CardRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Выдача номеров новых карт
+ * <p>
+ * Номер состоит из BIN, порядкового номера счета и контрольной цифры Луна. Порядковые номера
+ * резервируются блоками через последовательность {@code card_number_seq}, поэтому разные узлы
+ * никогда не выдают один и тот же номер. Внутри блока номера выдаются из памяти без блокировок,
+ * к базе обращается только поток, исчерпавший блок.
+ * </p>
+ * <p>
+ * Блоки не пересекаются, только если {@code bank.card.number-block-size} равен шагу последовательности.
+ * Перед резервированием первого блока шаг читается из базы, и при расхождении номера не выдаются вовсе.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Component
+public class CardNumberAllocator {
+
+    private static final int CARD_NUMBER_LENGTH = 16;
+
+    private final CardRepository cardRepository;
+    private final String bin;
+    private final long blockSize;
+    private final long maxAccount;
+
+    private volatile Block block = new Block(0, 0);
+    private boolean blockSizeVerified;
+
+    /**
+     * @param cardRepository репозиторий для резервирования блоков
+     * @param bin            BIN эмитента (6-8 цифр)
+     * @param blockSize      размер блока, должен совпадать с INCREMENT BY последовательности {@code card_number_seq}
+     */
+    public CardNumberAllocator(CardRepository cardRepository,
+                               @Value("${bank.card.bin}") String bin,
+                               @Value("${bank.card.number-block-size}") long blockSize) {
+        if (!bin.matches("\\d{6,8}")) {
+            throw new IllegalArgumentException("BIN должен состоять из 6-8 цифр: " + bin);
+        }
+        this.cardRepository = cardRepository;
+        this.bin = bin;
+        this.blockSize = blockSize;
+        this.maxAccount = pow10(CARD_NUMBER_LENGTH - 1 - bin.length()) - 1;
+    }
+
+    /**
+     * Выдает следующий номер карты
+     *
+     * @return 16-значный номер с BIN и контрольной цифрой Луна
+     */
+    public String next() {
+        while (true) {
+            Block current = block;
+            long account = current.next.getAndIncrement();
+            if (account < current.end) {
+                return format(account);
+            }
+            reserve(current);
+        }
+    }
+
+    /**
+     * Резервирует новый блок, если другой поток еще не сделал этого
+     *
+     * @param exhausted исчерпанный блок
+     */
+    private synchronized void reserve(Block exhausted) {
+        if (block != exhausted) {
+            return;
+        }
+        if (!blockSizeVerified) {
+            verifyBlockSize();
+            blockSizeVerified = true;
+        }
+        long start = cardRepository.nextCardNumberBlock();
+        if (start + blockSize - 1 > maxAccount) {
+            throw new IllegalStateException("Номера карт для BIN " + bin + " исчерпаны");
+        }
+        block = new Block(start, start + blockSize);
+    }
+
+    /**
+     * Проверяет, что размер блока совпадает с шагом последовательности
+     *
+     * @throws IllegalStateException если шаг отличается: узлы получили бы пересекающиеся блоки
+     */
+    private void verifyBlockSize() {
+        long increment = cardRepository.findCardNumberBlockIncrement()
+                .orElseThrow(() -> new IllegalStateException("Последовательность card_number_seq не найдена"));
+        if (increment != blockSize) {
+            throw new IllegalStateException("bank.card.number-block-size = " + blockSize
+                    + " не совпадает с INCREMENT BY " + increment + " последовательности card_number_seq");
+        }
+    }
+
+    private String format(long account) {
+        String payload = bin + String.format("%0" + (CARD_NUMBER_LENGTH - 1 - bin.length()) + "d", account);
+        return payload + luhnDigit(payload);
+    }
+
+    /**
+     * Вычисляет контрольную цифру Луна
+     *
+     * @param payload номер без контрольной цифры
+     * @return контрольная цифра
+     */
+    public static int luhnDigit(String payload) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = payload.length() - 1; i >= 0; i--) {
+            int digit = payload.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    /**
+     * Зарезервированный диапазон порядковых номеров [start, end)
+     */
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.bankcards.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Слепой индекс номера карты
+ * <p>
+ * HMAC-SHA256 от номера на отдельном ключе: одинаковые номера дают одинаковое значение, поэтому
+ * по нему работают уникальный индекс и поиск карты по номеру без расшифровки таблицы.
+ * Без ключа значение не позволяет восстановить номер перебором.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@Component
+public class CardNumberHasher {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<Mac> macs;
+
+    public CardNumberHasher(@Value("${encryption.blind-index.key}") String key) {
+        SecretKeySpec keySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(keySpec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * Вычисляет слепой индекс номера карты
+     *
+     * @param cardNumber номер карты без пробелов
+     * @return HMAC-SHA256 в шестнадцатеричном виде или null для пустого номера
+     */
+    public String hash(String cardNumber) {
+        if (cardNumber == null) {
+            return null;
+        }
+        return HexFormat.of().formatHex(macs.get().doFinal(cardNumber.getBytes(StandardCharsets.UTF_8)));
+    }
+}
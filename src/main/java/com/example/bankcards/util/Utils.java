@@ -11,10 +11,10 @@ public class Utils {
     }
 
     @NotNull
-    String mask(@NotNull String cardNumber) {
-        if (cardNumber.length() < 8) {
+    String mask(String cardLast4) {
+        if (cardLast4 == null) {
             return "****";
         }
-        return "**** **** **** " + cardNumber.substring(cardNumber.length() - 4);
+        return "**** **** **** " + cardLast4;
     }
 }
@@ -0,0 +1,6 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:4
+-- validCheckSum: 9:3e7449fc3501cffbd62adf1f84cfe2c1
+
+-- последние цифры номера заполняются приложением при старте (CardNumberBackfill), т.к. номер зашифрован
+ALTER TABLE cards ADD COLUMN card_last4 VARCHAR(4);
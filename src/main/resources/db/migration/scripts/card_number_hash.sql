@@ -0,0 +1,10 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:5
+
+-- слепой индекс номера (HMAC-SHA256) заполняется приложением при старте (CardNumberBackfill)
+ALTER TABLE cards ADD COLUMN card_number_hash VARCHAR(64);
+
+CREATE UNIQUE INDEX cards_card_number_hash_idx ON cards (card_number_hash);
+
+-- шифртекст со случайной солью уникален всегда, ограничение на него ничего не проверяет
+ALTER TABLE cards DROP CONSTRAINT IF EXISTS cards_card_number_key;
@@ -0,0 +1,6 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:13
+
+-- карты с повторяющимся номером не получают слепой индекс; отметка исключает их из заполнения
+-- при следующих запусках, чтобы они не перечитывались и не выводились в лог каждый раз
+ALTER TABLE cards ADD COLUMN card_number_hash_skipped BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,5 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:6
+
+-- блоки порядковых номеров карт, шаг равен bank.card.number-block-size
+CREATE SEQUENCE card_number_seq START WITH 0 MINVALUE 0 INCREMENT BY 1000;
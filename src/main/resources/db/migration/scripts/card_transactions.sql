@@ -0,0 +1,23 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:2
+
+CREATE SEQUENCE card_transactions_seq INCREMENT BY 50;
+
+CREATE TABLE card_transactions
+(
+    id          BIGINT PRIMARY KEY DEFAULT nextval('card_transactions_seq'),
+    transfer_id uuid        NOT NULL,
+    card_id     uuid        NOT NULL,
+    type        VARCHAR(16) NOT NULL,
+    amount      NUMERIC     NOT NULL,
+    created_at  TIMESTAMP   NOT NULL DEFAULT now(),
+    FOREIGN KEY (card_id) REFERENCES cards (card_id) ON DELETE CASCADE
+);
+
+CREATE INDEX card_transactions_card_id_idx ON card_transactions (card_id);
+
+-- начальные остатки существующих карт, чтобы сумма по журналу сходилась с балансом
+INSERT INTO card_transactions (transfer_id, card_id, type, amount)
+SELECT gen_random_uuid(), card_id, 'ADJUSTMENT', balance
+FROM cards
+WHERE balance <> 0;
@@ -0,0 +1,8 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:12
+
+-- журнал только дополняется: удаление карты не должно стирать её записи и оставлять
+-- у перевода только сторону второй карты, поэтому карту с записями в журнале удалить нельзя
+ALTER TABLE card_transactions DROP CONSTRAINT card_transactions_card_id_fkey;
+ALTER TABLE card_transactions ADD CONSTRAINT card_transactions_card_id_fkey
+    FOREIGN KEY (card_id) REFERENCES cards (card_id) ON DELETE RESTRICT;
@@ -0,0 +1,5 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:9
+
+-- поиск активных карт с истекшим сроком действия для перевода в статус EXPIRED
+CREATE INDEX cards_active_expiration_date_idx ON cards (expiration_date) WHERE status = 'ACTIVE';
@@ -0,0 +1,5 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:7
+
+-- постраничный вывод карт владельца по ключу (owner_id, card_id)
+CREATE INDEX cards_owner_id_card_id_idx ON cards (owner_id, card_id);
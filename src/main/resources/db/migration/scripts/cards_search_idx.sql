@@ -0,0 +1,8 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:8
+
+-- поиск карт администратором по статусу, сроку действия и балансу;
+-- card_id во втором столбце задает порядок постраничного вывода по ключу
+CREATE INDEX cards_status_card_id_idx ON cards (status, card_id);
+CREATE INDEX cards_expiration_date_card_id_idx ON cards (expiration_date, card_id);
+CREATE INDEX cards_balance_card_id_idx ON cards (balance, card_id);
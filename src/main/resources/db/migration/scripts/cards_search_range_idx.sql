@@ -0,0 +1,11 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:14
+
+-- в индексах (expiration_date, card_id) и (balance, card_id) строки диапазона не упорядочены по card_id,
+-- поэтому для вывода по ключу они не помогали: найденный диапазон все равно сортируется перед LIMIT.
+-- Для диапазонов достаточно индекса по одному столбцу; порядок по card_id при неизбирательном условии
+-- дает первичный ключ. По ключу без сортировки читаются только (status, card_id) и (owner_id, card_id).
+DROP INDEX cards_expiration_date_card_id_idx;
+DROP INDEX cards_balance_card_id_idx;
+CREATE INDEX cards_expiration_date_idx ON cards (expiration_date);
+CREATE INDEX cards_balance_idx ON cards (balance);
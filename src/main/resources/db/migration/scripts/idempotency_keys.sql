@@ -0,0 +1,12 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:3
+
+CREATE TABLE idempotency_keys
+(
+    idempotency_key VARCHAR(64)  PRIMARY KEY,
+    fingerprint     VARCHAR(255) NOT NULL,
+    created_at      TIMESTAMP    NOT NULL,
+    expires_at      TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX idempotency_keys_expires_at_idx ON idempotency_keys (expires_at);
@@ -0,0 +1,10 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:11
+
+-- ключ идемпотентности уникален в пределах пользователя, а не глобально;
+-- у существующих ключей владелец неизвестен, а живут они не дольше bank.idempotency.ttl, поэтому они удаляются
+DELETE FROM idempotency_keys;
+
+ALTER TABLE idempotency_keys DROP CONSTRAINT idempotency_keys_pkey;
+ALTER TABLE idempotency_keys ADD COLUMN username VARCHAR(64) NOT NULL;
+ALTER TABLE idempotency_keys ADD PRIMARY KEY (username, idempotency_key);
@@ -0,0 +1,19 @@
+-- liquibase formatted sql
+-- changeset andrey-rock:10
+
+-- токены обновления хранятся только в виде SHA-256; токены одной цепочки ротации имеют общий family_id
+CREATE TABLE refresh_tokens
+(
+    id         BIGSERIAL PRIMARY KEY,
+    token_hash VARCHAR(64) NOT NULL UNIQUE,
+    family_id  uuid        NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    created_at TIMESTAMP   NOT NULL,
+    expires_at TIMESTAMP   NOT NULL,
+    used_at    TIMESTAMP,
+    revoked    BOOLEAN     NOT NULL DEFAULT false,
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX refresh_tokens_family_id_idx ON refresh_tokens (family_id);
+CREATE INDEX refresh_tokens_expires_at_idx ON refresh_tokens (expires_at);
@@ -0,0 +1,25 @@
+package com.example.bankcards;
+
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Общая конфигурация для тестов на встроенной базе данных
+ * <p>
+ * Подменяет шифратор номеров карт облегченной реализацией, чтобы не поднимать конфигурацию безопасности.
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@TestConfiguration
+public class JpaTestConfig {
+
+    @Bean
+    public StringEncryptor stringEncryptor() {
+        StandardPBEStringEncryptor encryptor = new StandardPBEStringEncryptor();
+        encryptor.setPassword("test-secret-key");
+        return encryptor;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.UuidV7Generator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Сравнение массового создания карт с идентификатором, генерируемым базой ({@code gen_random_uuid()},
+ * вставка по одной строке с возвратом ключа, как при {@code GenerationType.IDENTITY}), и с UUID версии 7,
+ * назначенным приложением (пакетная вставка по {@link #BATCH_SIZE} строк).
+ * <p>
+ * После прогона печатается размер таблицы с индексом первичного ключа в расчете на строку.
+ * Используется встроенная H2, на PostgreSQL размер индекса смотреть через {@code pg_relation_size('cards_pkey')}.
+ * Запуск: {@code mvn test-compile} и метод {@link #main(String[])} из IDE.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardIdInsertBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"db-random", "app-v7"})
+    public String scheme;
+
+    private Path directory;
+    private Connection connection;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        directory = Files.createTempDirectory("card-id-bench");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve(scheme) + ";MODE=PostgreSQL",
+                "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE cards (card_id uuid DEFAULT random_uuid() PRIMARY KEY, " +
+                    "card_number VARCHAR(255) NOT NULL, balance NUMERIC)");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        try (Statement statement = connection.createStatement();
+             ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM cards")) {
+            count.next();
+            long rows = count.getLong(1);
+            try (ResultSet size = statement.executeQuery("SELECT DISK_SPACE_USED('CARDS')")) {
+                size.next();
+                System.out.printf("%n%s: %d rows, %d bytes on disk per row%n", scheme, rows, size.getLong(1) / rows);
+            }
+        }
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertCards() throws SQLException {
+        if ("app-v7".equals(scheme)) {
+            insertBatched();
+        } else {
+            insertReturningKeys();
+        }
+        connection.commit();
+    }
+
+    private void insertReturningKeys() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO cards (card_number, balance) VALUES (?, ?)", new String[]{"card_id"})) {
+            for (int i = 0; i < ROWS; i++) {
+                insert.setString(1, String.format("4000%012d", sequence++));
+                insert.setBigDecimal(2, BigDecimal.ZERO);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                }
+            }
+        }
+    }
+
+    private void insertBatched() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO cards (card_id, card_number, balance) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                insert.setObject(1, UuidV7Generator.next());
+                insert.setString(2, String.format("4000%012d", sequence++));
+                insert.setBigDecimal(3, BigDecimal.ZERO);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CardIdInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
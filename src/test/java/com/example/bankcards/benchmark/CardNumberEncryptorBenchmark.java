@@ -0,0 +1,83 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.AesGcmStringEncryptor;
+import com.example.bankcards.util.CardNumberEncryptor;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.encryption.pbe.PooledPBEStringEncryptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение чтения страницы карт ({@link #ROWS} номеров) через {@link CardNumberEncryptor}
+ * с прежним PBE-шифратором и с AES-GCM.
+ * <p>
+ * Запуск: {@code mvn test-compile} и метод {@link #main(String[])} из IDE.
+ * </p>
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardNumberEncryptorBenchmark {
+
+    private static final int ROWS = 100;
+    private static final String SECRET = "your-super-secret-key-32-chars-long";
+
+    @Param({"pbe", "aes-gcm"})
+    public String mode;
+
+    private CardNumberEncryptor converter;
+    private String[] rows;
+
+    @Setup
+    public void setUp() {
+        PooledPBEStringEncryptor pbe = new PooledPBEStringEncryptor();
+        pbe.setProvider(new BouncyCastleProvider());
+        pbe.setPoolSize(4);
+        pbe.setPassword(SECRET);
+        pbe.setAlgorithm("PBEWithSHA256And256BitAES-CBC-BC");
+        StringEncryptor encryptor = "pbe".equals(mode) ? pbe : new AesGcmStringEncryptor(SECRET, pbe);
+
+        converter = new CardNumberEncryptor(encryptor);
+        rows = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = converter.convertToDatabaseColumn(String.format("4000%012d", i));
+        }
+    }
+
+    @Benchmark
+    public void readPage(Blackhole blackhole) {
+        for (String row : rows) {
+            blackhole.consume(converter.convertToEntityAttribute(row));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CardNumberEncryptorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
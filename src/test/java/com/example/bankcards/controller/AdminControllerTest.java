@@ -1,22 +1,37 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.CardIssueRequest;
+import com.example.bankcards.dto.CardIssueResult;
+import com.example.bankcards.dto.CardStatusChangeDto;
+import com.example.bankcards.dto.CardStatusChangeResult;
 import com.example.bankcards.dto.CardUpdateDto;
+import com.example.bankcards.dto.CardView;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.Status;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardTransactionRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.DisabledUserRegistry;
 import com.example.bankcards.security.JwtAuthenticationFilter;
 import com.example.bankcards.security.JwtService;
+import com.example.bankcards.security.VerifiedTokenCache;
+import com.example.bankcards.service.CacheInvalidationBus;
+import com.example.bankcards.service.CardCache;
+import com.example.bankcards.service.CardIssueService;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.CardStatusChangeService;
 import com.example.bankcards.service.UserService;
 import com.example.bankcards.util.CardMapper;
+import com.example.bankcards.util.CardNumberAllocator;
+import com.example.bankcards.util.CardNumberHasher;
 import com.example.bankcards.util.UserMapperImpl;
 import com.example.bankcards.util.Utils;
 
 import org.json.JSONObject;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -31,8 +46,11 @@ import java.math.BigDecimal;
 import java.time.Clock;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.mockito.ArgumentMatchers.any;
@@ -59,9 +77,24 @@ public class AdminControllerTest {
     @MockBean
     UserRepository userRepository;
 
+    @MockBean
+    CardTransactionRepository cardTransactionRepository;
+
+    @MockBean
+    CacheInvalidationBus cacheInvalidationBus;
+
+    @MockBean
+    CardIssueService cardIssueService;
+
+    @MockBean
+    CardStatusChangeService cardStatusChangeService;
+
     @SpyBean
     CardService cardService;
 
+    @SpyBean
+    CardCache cardCache;
+
     @SpyBean
     UserService userService;
 
@@ -74,9 +107,21 @@ public class AdminControllerTest {
     @SpyBean
     JwtService jwtService;
 
+    @SpyBean
+    DisabledUserRegistry disabledUserRegistry;
+
+    @SpyBean
+    VerifiedTokenCache verifiedTokenCache;
+
     @SpyBean
     JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @SpyBean
+    CardNumberAllocator cardNumberAllocator;
+
+    @SpyBean
+    CardNumberHasher cardNumberHasher;
+
     @SpyBean
     Utils utils;
 
@@ -94,8 +139,8 @@ public class AdminControllerTest {
     @Test
     void getAllCardsTest() throws Exception {
         // Given
-        List<Card> cards = List.of(card1, card2);
-        when(cardRepository.findAll()).thenReturn(cards);
+        List<CardView> cards = List.of(view(card1), view(card2));
+        when(cardRepository.findAllViews()).thenReturn(cards);
 
         // When & Then
         mockMvc.perform(MockMvcRequestBuilders
@@ -124,8 +169,7 @@ public class AdminControllerTest {
                 BigDecimal.valueOf(1500.50)
         );
 
-        when(cardRepository.findById(testCardId)).thenReturn(Optional.of(card1));
-        when(cardRepository.save(card1)).thenReturn(card1);
+        when(cardRepository.findWithOwnerById(testCardId)).thenReturn(Optional.of(card1));
 
         JSONObject object = new JSONObject();
         object.put("id", testCardId);
@@ -146,8 +190,271 @@ public class AdminControllerTest {
                 .andExpect(jsonPath("$.status").value("ACTIVE"))
                 .andExpect(jsonPath("$.balance").value(1500.50))
                 .andExpect(jsonPath("$.ownerName").value("username"));
-        verify(cardRepository).findById(card1.getCardId());
-        verify(cardRepository, times(2)).save(card1);
+        verify(cardRepository, times(1)).findWithOwnerById(card1.getCardId());
+        verify(cardRepository, never()).findById(any());
+        verify(cardRepository, never()).save(any());
+        verify(cardTransactionRepository).save(any());
+    }
+
+    @Test
+    void patchCard_ShouldChangeOnlyPatchedFields() throws Exception {
+        // Given
+        when(cardRepository.findWithOwnerById(card2.getCardId())).thenReturn(Optional.of(card2));
+
+        // When & Then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .patch("/admin/cards/" + card2.getCardId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"status\":\"ACTIVE\"}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ACTIVE"))
+                .andExpect(jsonPath("$.cardNumber").value("**** **** **** 1234"))
+                .andExpect(jsonPath("$.balance").value(BigDecimal.TEN));
+        Assertions.assertEquals("0000000000001234", card2.getCardNumber());
+        verify(cardTransactionRepository, never()).save(any());
+    }
+
+    @Test
+    void patchCard_WithNullOrInvalidValue_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(cardRepository.findWithOwnerById(card2.getCardId())).thenReturn(Optional.of(card2));
+
+        // When & Then
+        for (String patch : List.of("{\"status\":null}", "{\"balance\":-1}", "[]")) {
+            mockMvc.perform(MockMvcRequestBuilders
+                            .patch("/admin/cards/" + card2.getCardId())
+                            .contentType("application/merge-patch+json")
+                            .content(patch)
+                            .with(csrf()))
+                    .andExpect(status().isBadRequest());
+        }
+        Assertions.assertEquals(Status.BLOCKED, card2.getStatus());
+        Assertions.assertEquals(BigDecimal.TEN, card2.getBalance());
+    }
+
+    @Test
+    void patchCard_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(cardRepository.findWithOwnerById(card2.getCardId())).thenReturn(Optional.of(card2));
+
+        // When & Then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .patch("/admin/cards/" + card2.getCardId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"balance\":5,\"stauts\":\"ACTIVE\"}")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Неизвестное поле карты: stauts"));
+        Assertions.assertEquals(Status.BLOCKED, card2.getStatus());
+        Assertions.assertEquals(BigDecimal.TEN, card2.getBalance());
+    }
+
+    @Test
+    void exportCards_ShouldStreamNdjson() throws Exception {
+        // Given
+        when(cardRepository.streamAllViews()).thenReturn(Stream.of(view(card1), view(card2)));
+
+        // When & Then
+        String body = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/admin/cards")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertTrue(lines[0].contains("\"id\":\"" + testCardId + "\""));
+        Assertions.assertTrue(lines[1].contains("\"cardNumber\":\"**** **** **** 1234\""));
+        verify(cardRepository, never()).findAll();
+        verify(cardRepository, never()).findAllViews();
+    }
+
+    @Test
+    void issueCardsFromCsv_ShouldStreamResultPerRow() throws Exception {
+        // Given
+        List<CardIssueRequest> received = new ArrayList<>();
+        when(cardIssueService.issue(any(), any())).thenAnswer(invocation -> {
+            Iterator<CardIssueRequest> rows = invocation.getArgument(0);
+            Consumer<CardIssueResult> sink = invocation.getArgument(1);
+            for (int i = 0; rows.hasNext(); i++) {
+                CardIssueRequest row = rows.next();
+                received.add(row);
+                sink.accept(row.isMalformed()
+                        ? CardIssueResult.rejected(i, null, "Некорректная строка пакета")
+                        : CardIssueResult.ok(i, row.getUserId(), row.getCount()));
+            }
+            return 0L;
+        });
+
+        // When & Then
+        String body = mockMvc.perform(MockMvcRequestBuilders
+                        .post("/admin/cards/bulk")
+                        .contentType("text/csv")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content("userId,count\n1,3\n\nbroken\n2,1\n")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        Assertions.assertEquals(List.of(new CardIssueRequest(1L, 3), CardIssueRequest.malformed(),
+                new CardIssueRequest(2L, 1)), received);
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertEquals("Некорректная строка пакета", new JSONObject(lines[1]).getString("message"));
+        Assertions.assertEquals(2, new JSONObject(lines[2]).getInt("index"));
+    }
+
+    @Test
+    void issueCards_ShouldReadJsonArrayLazily() throws Exception {
+        // Given
+        List<CardIssueRequest> received = new ArrayList<>();
+        when(cardIssueService.issue(any(), any())).thenAnswer(invocation -> {
+            Iterator<CardIssueRequest> rows = invocation.getArgument(0);
+            rows.forEachRemaining(received::add);
+            return 0L;
+        });
+
+        // When & Then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/admin/cards/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content("[{\"userId\":1,\"count\":2},{\"userId\":5,\"count\":1}]")
+                        .with(csrf()))
+                .andExpect(status().isOk());
+
+        Assertions.assertEquals(List.of(new CardIssueRequest(1L, 2), new CardIssueRequest(5L, 1)), received);
+    }
+
+    @Test
+    void issueCards_WithWronglyTypedJsonElement_ShouldRejectOnlyThatRow() throws Exception {
+        // Given
+        when(cardIssueService.issue(any(), any())).thenAnswer(invocation -> {
+            Iterator<CardIssueRequest> rows = invocation.getArgument(0);
+            Consumer<CardIssueResult> sink = invocation.getArgument(1);
+            for (int index = 0; rows.hasNext(); index++) {
+                CardIssueRequest row = rows.next();
+                sink.accept(row.isMalformed()
+                        ? CardIssueResult.rejected(index, row.getUserId(), "Некорректная строка пакета")
+                        : CardIssueResult.ok(index, row.getUserId(), row.getCount()));
+            }
+            return 0L;
+        });
+
+        // When & Then
+        String body = mockMvc.perform(MockMvcRequestBuilders
+                        .post("/admin/cards/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content("[{\"userId\":1,\"count\":2},{\"userId\":2,\"count\":\"x\"},7,{\"userId\":5,\"count\":1}]")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(4, lines.length);
+        Assertions.assertTrue(new JSONObject(lines[0]).getBoolean("success"));
+        Assertions.assertEquals("Некорректная строка пакета", new JSONObject(lines[1]).getString("message"));
+        Assertions.assertEquals("Некорректная строка пакета", new JSONObject(lines[2]).getString("message"));
+        Assertions.assertEquals(5, new JSONObject(lines[3]).getLong("userId"));
+    }
+
+    @Test
+    void changeStatus_ShouldReturnUpdatedCount() throws Exception {
+        // Given
+        when(cardStatusChangeService.changeStatus(any())).thenReturn(new CardStatusChangeResult(42));
+
+        // When & Then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .patch("/admin/cards/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ownerId\":1,\"expiryBefore\":\"2030-01-01\",\"targetStatus\":\"BLOCKED\"}")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(42));
+        verify(cardStatusChangeService).changeStatus(
+                new CardStatusChangeDto(null, 1L, null, LocalDate.of(2030, 1, 1), Status.BLOCKED));
+    }
+
+    @Test
+    void changeStatus_WithoutTargetStatus_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .patch("/admin/cards/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ownerId\":1}")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+        verify(cardStatusChangeService, never()).changeStatus(any());
+    }
+
+    @Test
+    void searchCards_ShouldReturnSliceWithNextCursor() throws Exception {
+        // Given
+        when(cardRepository.findViews(any(), eq(2))).thenReturn(List.of(view(card1), view(card2)));
+
+        // When & Then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/admin/cards/search")
+                        .param("status", "ACTIVE")
+                        .param("ownerId", "1")
+                        .param("expiryFrom", "2026-01-01")
+                        .param("balanceTo", "100")
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cards.length()").value(1))
+                .andExpect(jsonPath("$.cards[0].id").value(testCardId.toString()))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+        verify(cardRepository, never()).findAllViews();
+    }
+
+    @Test
+    void searchCards_WithUnknownStatus_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/admin/cards/search")
+                        .param("status", "LOST")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findCardByNumber_ShouldLookUpByBlindIndex() throws Exception {
+        // Given
+        when(cardRepository.findByCardNumberHash(cardNumberHasher.hash("0000000000001234")))
+                .thenReturn(Optional.of(card2));
+
+        JSONObject object = new JSONObject();
+        object.put("cardNumber", "0000 0000 0000 1234");
+
+        // When & Then
+        mockMvc.perform(post("/admin/cards/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.valueOf(object))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(card2.getCardId().toString()))
+                .andExpect(jsonPath("$.cardNumber").value("**** **** **** 1234"));
+        verify(cardRepository, never()).findAll();
+    }
+
+    @Test
+    void findCardByNumber_WhenNotFound_ShouldReturnNotFound() throws Exception {
+        JSONObject object = new JSONObject();
+        object.put("cardNumber", "0000 0000 0000 9999");
+
+        mockMvc.perform(post("/admin/cards/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.valueOf(object))
+                        .with(csrf()))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -419,4 +726,9 @@ public class AdminControllerTest {
         verify(userRepository, never()).getReferenceById(any());
         verify(userRepository, never()).save(any());
     }
+
+    private static CardView view(Card card) {
+        return new CardView(card.getCardId(), card.getCardLast4(), card.getExpiryDate(), card.getStatus(),
+                card.getBalance(), card.getOwner().getUsername());
+    }
 }
@@ -1,16 +1,27 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.CardView;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.Status;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardTransactionRepository;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.DisabledUserRegistry;
 import com.example.bankcards.security.JwtAuthenticationFilter;
 import com.example.bankcards.security.JwtService;
+import com.example.bankcards.security.VerifiedTokenCache;
+import com.example.bankcards.service.CacheInvalidationBus;
+import com.example.bankcards.service.CardCache;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.IdempotencyService;
+import com.example.bankcards.service.TransferBatchService;
 import com.example.bankcards.service.UserService;
 import com.example.bankcards.util.CardMapper;
+import com.example.bankcards.util.CardNumberAllocator;
+import com.example.bankcards.util.CardNumberHasher;
 import com.example.bankcards.util.UserMapperImpl;
 import com.example.bankcards.util.Utils;
 import org.junit.jupiter.api.Test;
@@ -18,8 +29,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -31,9 +40,13 @@ import java.time.Clock;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -63,12 +76,30 @@ public class ClientControllerTest {
     @MockBean
     UserRepository userRepository;
 
+    @MockBean
+    CardTransactionRepository cardTransactionRepository;
+
+    @MockBean
+    CacheInvalidationBus cacheInvalidationBus;
+
+    @MockBean
+    IdempotencyKeyRepository idempotencyKeyRepository;
+
     @SpyBean
     CardService cardService;
 
+    @SpyBean
+    CardCache cardCache;
+
     @SpyBean
     UserService userService;
 
+    @SpyBean
+    TransferBatchService transferBatchService;
+
+    @SpyBean
+    IdempotencyService idempotencyService;
+
     @SpyBean
     UserMapperImpl userMapper;
 
@@ -78,9 +109,21 @@ public class ClientControllerTest {
     @SpyBean
     JwtService jwtService;
 
+    @SpyBean
+    DisabledUserRegistry disabledUserRegistry;
+
+    @SpyBean
+    VerifiedTokenCache verifiedTokenCache;
+
     @SpyBean
     JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @SpyBean
+    CardNumberAllocator cardNumberAllocator;
+
+    @SpyBean
+    CardNumberHasher cardNumberHasher;
+
     @SpyBean
     Utils utils;
 
@@ -98,11 +141,10 @@ public class ClientControllerTest {
     @Test
     void getAllCardsByUser_WithDefaultValue_ShouldReturnCards() throws Exception {
 
-        List<Card> cards = List.of(card1, card2, card3);
-        Page<Card> cardPage = new PageImpl<>(cards);
+        List<CardView> cards = List.of(view(card1), view(card2), view(card3));
         PageRequest pageRequest = PageRequest.of(0, 3);
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
-        when(cardRepository.findByOwnerId(anyLong(), eq(pageRequest))).thenReturn(cardPage);
+        when(cardRepository.findViewsByOwnerId(anyLong(), eq(pageRequest))).thenReturn(cards);
 
         // When & Then
         mockMvc.perform(MockMvcRequestBuilders
@@ -126,11 +168,10 @@ public class ClientControllerTest {
     @Test
     void getAllCardsByUser_WithPage_2_Size_2_ShouldReturnCard() throws Exception {
 
-        List<Card> cards = List.of(card3);
-        Page<Card> cardPage = new PageImpl<>(cards);
+        List<CardView> cards = List.of(view(card3));
         PageRequest pageRequest = PageRequest.of(1, 2);
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
-        when(cardRepository.findByOwnerId(anyLong(), eq(pageRequest))).thenReturn(cardPage);
+        when(cardRepository.findViewsByOwnerId(anyLong(), eq(pageRequest))).thenReturn(cards);
 
         // When & Then
         mockMvc.perform(MockMvcRequestBuilders
@@ -143,4 +184,106 @@ public class ClientControllerTest {
                 .andExpect(jsonPath("$[0].status").value("EXPIRED"))
                 .andExpect(jsonPath("$[0].balance").value(BigDecimal.ONE));
     }
+
+    @Test
+    void getCardsByUserAfter_ShouldReturnNextCursor_WhenMoreCardsExist() throws Exception {
+
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+        when(cardRepository.findViewsByOwnerIdAfter(anyLong(), eq(new UUID(0, 0)), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(view(card1), view(card2), view(card3)));
+
+        // When & Then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/user/cards?size=2")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cards.length()").value(2))
+                .andExpect(jsonPath("$.cards[1].cardNumber").value("**** **** **** 1234"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    void getCardsByUserAfter_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/user/cards?cursor=not-a-cursor")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void transferBatch_ShouldReturnResultPerLeg() throws Exception {
+
+        UUID card2Id = card2.getCardId();
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+        when(cardRepository.lockAllById(anyCollection())).thenReturn(List.of(testCardId, card2Id));
+        when(cardRepository.findIdsByOwnerId(anyCollection(), eq(testUserId))).thenReturn(Set.of(testCardId, card2Id));
+        when(cardRepository.debit(eq(testCardId), any())).thenReturn(1);
+        when(cardRepository.debit(eq(card2Id), any())).thenReturn(0);
+        when(cardRepository.findStatusById(card2Id)).thenReturn(Optional.of(Status.BLOCKED));
+
+        String body = "[{\"cardId1\":\"" + testCardId + "\",\"cardId2\":\"" + card2Id + "\",\"amount\":10}," +
+                "{\"cardId1\":\"" + card2Id + "\",\"cardId2\":\"" + testCardId + "\",\"amount\":5}]";
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/user/transfer/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].message").value("Карта-отправитель не активна"));
+    }
+
+    @Test
+    void transferBatch_WithNullLeg_ShouldReturnBadRequest() throws Exception {
+
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+        String body = "[{\"cardId1\":\"" + testCardId + "\",\"cardId2\":\"" + card2.getCardId() + "\",\"amount\":10}," +
+                "null]";
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/user/transfer/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Пакет не должен содержать пустых переводов"));
+        verify(cardRepository, never()).lockAllById(anyCollection());
+    }
+
+    @Test
+    void transferMany_WithRepeatedIdempotencyKey_ShouldTransferOnce() throws Exception {
+
+        UUID card2Id = card2.getCardId();
+        when(cardRepository.lockAllById(anyCollection())).thenReturn(List.of(testCardId, card2Id));
+        when(cardRepository.debit(eq(testCardId), any())).thenReturn(1);
+        when(idempotencyKeyRepository.insertIfAbsent(eq("user"), eq("retry-key"), anyString(), any(), any())).thenReturn(1);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(MockMvcRequestBuilders
+                            .post("/user/transfer")
+                            .param("cardId1", testCardId.toString())
+                            .param("cardId2", card2Id.toString())
+                            .param("amount", "10")
+                            .header(ClientController.IDEMPOTENCY_KEY_HEADER, "retry-key")
+                            .with(csrf()))
+                    .andExpect(status().isOk());
+        }
+
+        verify(cardService, times(1)).transferMoney(anyString(), anyString(), any());
+        verify(cardRepository, times(1)).debit(any(), any());
+    }
+
+    private static CardView view(Card card) {
+        return new CardView(card.getCardId(), card.getCardLast4(), card.getExpiryDate(), card.getStatus(),
+                card.getBalance(), card.getOwner().getUsername());
+    }
 }
@@ -0,0 +1,119 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.JpaTestConfig;
+import com.example.bankcards.dto.CardSearchDto;
+import com.example.bankcards.dto.CardView;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.Status;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.util.CardNumberHasher;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Проверка планов поиска карт администратором на H2
+ * <p>
+ * SQL, построенный из {@link CardSpecifications}, перехватывается и передается в {@code EXPLAIN} H2:
+ * условие по одному полю должно быть применимо к своему индексу из {@code schema-h2.sql}.
+ * Тест проверяет только план H2 на пустой таблице и ничего не говорит о планах PostgreSQL,
+ * которые зависят от статистики; их нужно смотреть {@code EXPLAIN ANALYZE} на рабочих данных.
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.example.bankcards.repository.CardSearchExplainTest$LastSelect")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CardNumberHasher.class, JpaTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CardSearchExplainTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2030, 12, 31);
+
+    @Autowired
+    CardRepository cardRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM card_transactions");
+        jdbcTemplate.update("DELETE FROM cards");
+        jdbcTemplate.update("DELETE FROM users");
+        ownerId = userRepository.save(new User(null, "explain", "password", Role.USER, true, null)).getId();
+    }
+
+    static Stream<Arguments> filters() {
+        return Stream.of(
+                Arguments.of(new CardSearchDto(Status.ACTIVE, null, null, null, null, null), "CARDS_STATUS_CARD_ID_IDX"),
+                Arguments.of(new CardSearchDto(null, 1L, null, null, null, null), "CARDS_OWNER_ID_CARD_ID_IDX"),
+                Arguments.of(new CardSearchDto(null, null, FROM, TO, null, null), "CARDS_EXPIRATION_DATE_IDX"),
+                Arguments.of(new CardSearchDto(null, null, null, null, BigDecimal.ONE, BigDecimal.TEN),
+                        "CARDS_BALANCE_IDX")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("filters")
+    void findViews_OnH2_ShouldUseFilterIndex(CardSearchDto filter, String expectedIndex) {
+        List<CardView> views = cardRepository.findViews(
+                CardSpecifications.matching(filter).and(CardSpecifications.idAfter(new UUID(0, 0))), 21);
+        Assertions.assertTrue(views.isEmpty());
+
+        String plan = explain(LastSelect.sql);
+
+        Assertions.assertTrue(plan.contains(expectedIndex), plan);
+    }
+
+    private String explain(String sql) {
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+        return jdbcTemplate.query("EXPLAIN " + sql, ps -> {
+            for (int i = 1; i <= parameters; i++) {
+                ps.setObject(i, null);
+            }
+        }, rs -> {
+            rs.next();
+            return rs.getString(1);
+        });
+    }
+
+    /**
+     * Запоминает последний выполненный запрос выборки
+     */
+    public static class LastSelect implements StatementInspector {
+
+        static volatile String sql;
+
+        @Override
+        public String inspect(String statement) {
+            if (statement.startsWith("select")) {
+                sql = statement;
+            }
+            return statement;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.SecurityUser;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование JwtAuthenticationFilter
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@ExtendWith(MockitoExtension.class)
+public class JwtAuthenticationFilterTest {
+
+    private static final int REQUESTS = 1000;
+
+    @Mock
+    UserService userService;
+
+    @Mock
+    DisabledUserRegistry disabledUserRegistry;
+
+    JwtService jwtService;
+    JwtAuthenticationFilter filter;
+    User user;
+    String token;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService("53A73E5F1C4E0A2D3B5F2D784E6A1B423D6F247D1F6E5C3A596D635A75327855",
+                Duration.ofMinutes(15));
+        filter = new JwtAuthenticationFilter(jwtService, new VerifiedTokenCache(jwtService, 100, Duration.ofMinutes(10)),
+                userService, disabledUserRegistry);
+        user = new User(7L, "user", "password", Role.USER, true, null);
+        token = jwtService.generateToken(new SecurityUser(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_ShouldNotLoadUser_WhenStateless() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            Authentication authentication = authenticate();
+            Assertions.assertNotNull(authentication);
+            SecurityUser principal = (SecurityUser) authentication.getPrincipal();
+            Assertions.assertEquals(7L, principal.user().getId());
+            Assertions.assertEquals("user", principal.getUsername());
+            Assertions.assertTrue(authentication.getAuthorities().stream()
+                    .anyMatch(a -> "ROLE_USER".equals(a.getAuthority())));
+        }
+
+        verify(userService, never()).getUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilter_ShouldLoadUserPerRequest_WhenNotStateless() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", false);
+        when(userService.getUserByUsername("user")).thenReturn(user);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            Assertions.assertNotNull(authenticate());
+        }
+
+        verify(userService, times(REQUESTS)).getUserByUsername("user");
+    }
+
+    @Test
+    void doFilter_ShouldNotAuthenticate_WhenUserDisabled() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        when(disabledUserRegistry.isDisabled("user")).thenReturn(true);
+
+        Assertions.assertNull(authenticate());
+        verify(userService, never()).getUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilter_ShouldReturnUnauthorized_WhenTokenExpiredOrTampered() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        JwtService expiredTokens = new JwtService("53A73E5F1C4E0A2D3B5F2D784E6A1B423D6F247D1F6E5C3A596D635A75327855",
+                Duration.ofMinutes(-1));
+        String expired = expiredTokens.generateToken(new SecurityUser(user));
+        String tampered = token.substring(0, token.lastIndexOf('.') + 1) + "AAAA";
+
+        for (String jwt : List.of(expired, tampered, "not-a-token")) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user");
+            request.setServletPath("/user");
+            request.addHeader(JwtAuthenticationFilter.HEADER_NAME, JwtAuthenticationFilter.BEARER_PREFIX + jwt);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+
+            filter.doFilter(request, response, chain);
+
+            Assertions.assertEquals(401, response.getStatus());
+            Assertions.assertTrue(response.getContentAsString(StandardCharsets.UTF_8)
+                    .contains(JwtAuthenticationFilter.INVALID_TOKEN));
+            Assertions.assertNull(chain.getRequest());
+            Assertions.assertNull(SecurityContextHolder.getContext().getAuthentication());
+        }
+    }
+
+    @Test
+    void doFilter_ShouldPassRefreshRequest_WhenTokenExpired() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login/refresh");
+        request.setServletPath("/login/refresh");
+        request.addHeader(JwtAuthenticationFilter.HEADER_NAME, JwtAuthenticationFilter.BEARER_PREFIX + "expired");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        Assertions.assertEquals(200, response.getStatus());
+        Assertions.assertNotNull(chain.getRequest());
+    }
+
+    private Authentication authenticate() throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(JwtAuthenticationFilter.HEADER_NAME, JwtAuthenticationFilter.BEARER_PREFIX + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
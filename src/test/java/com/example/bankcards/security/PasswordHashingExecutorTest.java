@@ -0,0 +1,72 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Тестирование PasswordHashingExecutor
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+public class PasswordHashingExecutorTest {
+
+    PasswordHashingExecutor executor;
+    SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        executor = new PasswordHashingExecutor(1, 1);
+        registry = new SimpleMeterRegistry();
+        executor.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_ShouldRejectImmediately_WhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> executor.execute(() -> await(release)));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.execute(() -> await(release)));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (registry.get("executor.queued").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Assertions.assertThrows(TooManyRequestsException.class, () -> executor.execute(() -> true));
+        Assertions.assertEquals(1, registry.get("auth.hashing.rejected").functionCounter().count());
+        Assertions.assertEquals(1, registry.get("executor.queued").gauge().value());
+
+        release.countDown();
+        Assertions.assertTrue(running.get(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(queued.get(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, registry.get("auth.hashing.latency").timer().count());
+    }
+
+    @Test
+    void execute_ShouldRethrowTaskException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> executor.execute(() -> {
+            throw new IllegalArgumentException("bad hash");
+        }));
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
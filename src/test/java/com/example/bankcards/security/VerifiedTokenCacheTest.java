@@ -0,0 +1,88 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.SecurityUser;
+import com.example.bankcards.entity.User;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Тестирование VerifiedTokenCache
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+public class VerifiedTokenCacheTest {
+
+    JwtService jwtService;
+    VerifiedTokenCache cache;
+    String token;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = Mockito.spy(new JwtService("53A73E5F1C4E0A2D3B5F2D784E6A1B423D6F247D1F6E5C3A596D635A75327855",
+                Duration.ofMinutes(15)));
+        cache = new VerifiedTokenCache(jwtService, 100, Duration.ofMinutes(10));
+        token = jwtService.generateToken(new SecurityUser(new User(1L, "user", "password", Role.USER, true, null)));
+    }
+
+    @Test
+    void get_ShouldParseTokenOnce_WhenRequestedRepeatedly() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals("user", cache.get(token).username());
+        }
+
+        verify(jwtService, times(1)).parse(token);
+        Assertions.assertEquals(99, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        Assertions.assertEquals(1, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void get_ShouldParseAgain_WhenUserEvicted() {
+        cache.get(token);
+        cache.evictUser("user");
+        cache.get(token);
+
+        verify(jwtService, times(2)).parse(token);
+    }
+
+    @Test
+    void evictUser_ShouldWaitForCommit_WhenTransactionActive() {
+        cache.get(token);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evictUser("user");
+            cache.get(token);
+            verify(jwtService, times(1)).parse(token);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cache.get(token);
+
+        verify(jwtService, times(2)).parse(token);
+    }
+
+    @Test
+    void get_ShouldNotCache_WhenTokenInvalid() {
+        Assertions.assertThrows(JwtException.class, () -> cache.get(token + "x"));
+        Assertions.assertThrows(JwtException.class, () -> cache.get(token + "x"));
+
+        verify(jwtService, times(2)).parse(token + "x");
+    }
+}
@@ -5,11 +5,13 @@ import com.example.bankcards.dto.Register;
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.SecurityUser;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidRefreshTokenException;
 import com.example.bankcards.exception.UserAlreadyExistException;
 import com.example.bankcards.exception.UserNoSuchException;
 import com.example.bankcards.exception.WrongPasswordException;
 import com.example.bankcards.security.JwtService;
 import com.example.bankcards.security.MyUserDetailsService;
+import com.example.bankcards.security.PasswordHashingExecutor;
 import com.example.bankcards.util.UserMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,11 +20,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verify;
 
@@ -43,6 +48,10 @@ public class AuthServiceTest {
     private UserMapper userMapper;
     @Mock
     private JwtService jwtService;
+    @Spy
+    private PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(1, 1);
+    @Mock
+    private RefreshTokenService refreshTokenService;
 
     @InjectMocks
     private AuthService authService;
@@ -64,11 +73,13 @@ public class AuthServiceTest {
     @Test
     public void testRegisterSuccess() {
 
-        JwtAuthenticationResponse jwtAuthenticationResponse = new JwtAuthenticationResponse("token");
+        JwtAuthenticationResponse jwtAuthenticationResponse = new JwtAuthenticationResponse("token", "refresh");
+        user.setId(1L);
         when(manager.userExists(username)).thenReturn(false);
         when(encoder.encode(password)).thenReturn(encodedPassword);
         when(userMapper.entityFromRegister(register)).thenReturn(user);
         when(jwtService.generateToken(new SecurityUser(user))).thenReturn(jwtAuthenticationResponse.getToken());
+        when(refreshTokenService.issue(1L)).thenReturn("refresh");
 
         JwtAuthenticationResponse response = authService.register(register);
 
@@ -95,27 +106,29 @@ public class AuthServiceTest {
     @Test
     void testLoginSuccess() {
 
-        JwtAuthenticationResponse jwtResponse = new JwtAuthenticationResponse("token");
-        UserDetails userDetails = mock(UserDetails.class);
-        when(manager.userExists(username)).thenReturn(true);
-        when(manager.loadUserByUsername(username)).thenReturn(userDetails);
-        when(userDetails.getPassword()).thenReturn("hashedPassword");
+        JwtAuthenticationResponse jwtResponse = new JwtAuthenticationResponse("token", "refresh");
+        user.setId(1L);
+        user.setPassword("hashedPassword");
+        SecurityUser userDetails = new SecurityUser(user);
+        when(manager.findUser(username)).thenReturn(Optional.of(userDetails));
         when(encoder.matches(password, "hashedPassword")).thenReturn(true);
         when(jwtService.generateToken(userDetails)).thenReturn(jwtResponse.getToken());
+        when(refreshTokenService.issue(1L)).thenReturn("refresh");
 
         JwtAuthenticationResponse result = authService.login(username, password);
 
         Assertions.assertEquals(result, jwtResponse);
+        verify(manager, never()).userExists(any());
+        verify(manager, never()).loadUserByUsername(any());
+        verify(hashingExecutor).execute(any());
     }
 
     //Тест провальной аутентификации - неверный пароль
     @Test
     void testLoginFailedBecausePasswordWrong() {
 
-        UserDetails userDetails = mock(UserDetails.class);
-        when(manager.userExists(username)).thenReturn(true);
-        when(manager.loadUserByUsername(username)).thenReturn(userDetails);
-        when(userDetails.getPassword()).thenReturn("hashedPassword");
+        user.setPassword("hashedPassword");
+        when(manager.findUser(username)).thenReturn(Optional.of(new SecurityUser(user)));
         when(encoder.matches(password, "hashedPassword")).thenReturn(false);
 
         assertThrows(WrongPasswordException.class, () -> authService.login(username, password));
@@ -125,9 +138,32 @@ public class AuthServiceTest {
     @Test
     void testLoginFailedBecauseUserNotExists() {
 
-        when(manager.userExists(username)).thenReturn(false);
+        when(manager.findUser(username)).thenReturn(Optional.empty());
 
         assertThrows(UserNoSuchException.class, () -> authService.login(username, password));
-        verifyNoMoreInteractions(encoder, manager, jwtService);
+        verifyNoMoreInteractions(encoder, manager, jwtService, hashingExecutor, refreshTokenService);
+    }
+
+    //Тест успешного обновления токена - пароль не проверяется
+    @Test
+    void testRefreshSuccess() {
+
+        when(refreshTokenService.rotate("refresh")).thenReturn(new RefreshTokenService.Rotation(user, "refresh2"));
+        when(jwtService.generateToken(new SecurityUser(user))).thenReturn("token2");
+
+        JwtAuthenticationResponse result = authService.refresh("refresh");
+
+        Assertions.assertEquals(new JwtAuthenticationResponse("token2", "refresh2"), result);
+        verifyNoInteractions(encoder, manager, hashingExecutor);
+    }
+
+    //Тест провального обновления токена - токен недействителен
+    @Test
+    void testRefreshFailedBecauseTokenInvalid() {
+
+        when(refreshTokenService.rotate("refresh")).thenThrow(new InvalidRefreshTokenException());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> authService.refresh("refresh"));
+        verifyNoInteractions(jwtService);
     }
 }
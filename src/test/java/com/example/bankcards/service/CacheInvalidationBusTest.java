@@ -0,0 +1,141 @@
+package com.example.bankcards.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование шины инвалидации кэшей
+ * <p>
+ * Соединение с PostgreSQL подменяется, проверяются разбиение ключей на уведомления,
+ * доставка подписчикам, полная очистка кэшей при потере канала и снятие подписки перед
+ * возвратом соединения в пул.
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+public class CacheInvalidationBusTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private CacheInvalidationBus bus;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (bus != null) {
+            bus.stop();
+        }
+    }
+
+    @Test
+    void dispatch_ShouldDeliverEveryKey_WhenPayloadsAreSplit() {
+        bus = newBus(false);
+        List<String> evicted = new ArrayList<>();
+        List<String> otherTopic = new ArrayList<>();
+        bus.subscribe(CacheInvalidationBus.CARDS, evicted::add, Assertions::fail);
+        bus.subscribe(CacheInvalidationBus.USERS, otherTopic::add, Assertions::fail);
+        List<UUID> ids = IntStream.range(0, 500).mapToObj(i -> UUID.randomUUID()).toList();
+
+        List<String> payloads = CacheInvalidationBus.payloads(CacheInvalidationBus.CARDS, ids);
+        payloads.forEach(bus::dispatch);
+
+        Assertions.assertTrue(payloads.size() > 1);
+        Assertions.assertTrue(payloads.stream().allMatch(payload -> payload.length() < 8000));
+        Assertions.assertEquals(ids.stream().map(UUID::toString).toList(), evicted);
+        Assertions.assertTrue(otherTopic.isEmpty());
+    }
+
+    @Test
+    void dispatch_ShouldDeliverUsernameWithSeparators() {
+        bus = newBus(false);
+        List<String> evicted = new ArrayList<>();
+        bus.subscribe(CacheInvalidationBus.USERS, evicted::add, Assertions::fail);
+        List<String> usernames = List.of("ivanov,petrov", "100% user", "имя:пользователя");
+
+        CacheInvalidationBus.payloads(CacheInvalidationBus.USERS, usernames).forEach(bus::dispatch);
+
+        Assertions.assertEquals(usernames, evicted);
+    }
+
+    @Test
+    void dispatch_ShouldFlushSubscriber_WhenKeyIsMalformed() {
+        bus = newBus(false);
+        Runnable evictAll = mock(Runnable.class);
+        bus.subscribe(CacheInvalidationBus.CARDS, key -> UUID.fromString(key), evictAll);
+
+        bus.dispatch("card:not-a-uuid");
+
+        verify(evictAll).run();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listen_ShouldFlushAllCaches_WhenChannelIsLost() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.isWrapperFor(PGConnection.class)).thenReturn(true);
+        when(dataSource.getConnection()).thenReturn(connection).thenThrow(new SQLException("connection refused"));
+        Consumer<String> evict = mock(Consumer.class);
+        Runnable evictAll = mock(Runnable.class);
+        bus = newBus(true);
+        bus.subscribe(CacheInvalidationBus.USERS, evict, evictAll);
+
+        bus.start();
+
+        verify(evictAll, timeout(2000).atLeast(2)).run();
+        verify(evict, never()).accept(anyString());
+    }
+
+    @Test
+    void stop_ShouldUnlistenBeforeReturningConnectionToPool() throws Exception {
+        Connection connection = mock(Connection.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        Statement statement = mock(Statement.class);
+        when(connection.isWrapperFor(PGConnection.class)).thenReturn(true);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(dataSource.getConnection()).thenReturn(connection);
+        bus = newBus(true);
+
+        bus.start();
+        verify(statement, timeout(2000)).execute("LISTEN bank_cache_invalidation");
+        bus.stop();
+
+        InOrder order = inOrder(statement, connection);
+        order.verify(statement).execute("UNLISTEN *");
+        order.verify(connection).close();
+    }
+
+    @Test
+    void publish_ShouldDoNothing_WhenDatabaseIsNotPostgres() throws SQLException {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        bus = new CacheInvalidationBus(dataSource, jdbcTemplate, true, "bank_cache_invalidation", Duration.ofMillis(50));
+
+        bus.start();
+        bus.publish(CacheInvalidationBus.CARDS, List.of(UUID.randomUUID()));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private CacheInvalidationBus newBus(boolean enabled) {
+        return new CacheInvalidationBus(dataSource, mock(JdbcTemplate.class), enabled, "bank_cache_invalidation",
+                Duration.ofMillis(50));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.JpaTestConfig;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardMapper;
+import com.example.bankcards.util.CardNumberAllocator;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.Utils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Тестирование кэша карт и балансов
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CardService.class, CardMapper.class, Utils.class, CardNumberHasher.class, CardNumberAllocator.class,
+        CardCache.class, CacheInvalidationBus.class, JpaTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CardCacheTest {
+
+    @Autowired
+    CardService cardService;
+    @Autowired
+    CardCache cardCache;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private UUID from;
+    private UUID to;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM card_transactions");
+        jdbcTemplate.update("DELETE FROM cards");
+        jdbcTemplate.update("DELETE FROM users");
+        Long ownerId = userRepository.save(new User(null, "cached", "password", Role.USER, true, null)).getId();
+        from = insertCard(ownerId, "cached1");
+        to = insertCard(ownerId, "cached2");
+    }
+
+    @Test
+    void getBalance_ShouldReturnNewBalance_AfterCommittedTransfer() {
+        Assertions.assertEquals(0, BigDecimal.valueOf(100).compareTo(cardService.getBalance(from)));
+        Assertions.assertEquals(0, BigDecimal.valueOf(100).compareTo(cardService.findById(to).getBalance()));
+
+        cardService.transferMoney(from.toString(), to.toString(), BigDecimal.valueOf(30));
+
+        Assertions.assertEquals(0, BigDecimal.valueOf(70).compareTo(cardService.getBalance(from)));
+        Assertions.assertEquals(0, BigDecimal.valueOf(130).compareTo(cardService.findById(to).getBalance()));
+    }
+
+    @Test
+    void getBalance_ShouldServeCachedBalance_AndRecordHits() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cardCache.bindTo(registry);
+
+        cardService.getBalance(from);
+        jdbcTemplate.update("UPDATE cards SET balance = 0 WHERE card_id = ?", from);
+
+        Assertions.assertEquals(0, BigDecimal.valueOf(100).compareTo(cardService.getBalance(from)));
+        Assertions.assertTrue(registry.get("cache.gets").tag("cache", "card.balances").tag("result", "hit")
+                .functionCounter().count() >= 1);
+        Assertions.assertNotNull(registry.get("cache.evictions").tag("cache", "cards").functionCounter());
+    }
+
+    private UUID insertCard(Long ownerId, String number) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO cards (card_id, card_number, owner_id, expiration_date, status, balance) " +
+                "VALUES (?, ?, ?, CURRENT_DATE, 'ACTIVE', 100)", id, number, ownerId);
+        return id;
+    }
+}
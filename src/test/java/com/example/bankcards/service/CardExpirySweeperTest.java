@@ -0,0 +1,118 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.JpaTestConfig;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumberHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Тестирование перевода карт с истекшим сроком действия в статус EXPIRED
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@DataJpaTest(properties = "bank.card.expiry.chunk-size=10")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CardExpirySweeper.class, CardCache.class, CacheInvalidationBus.class, CardNumberHasher.class,
+        JpaTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CardExpirySweeperTest {
+
+    private static final int EXPIRED = 95;
+
+    @Autowired
+    CardExpirySweeper sweeper;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> activeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM card_transactions");
+        jdbcTemplate.update("DELETE FROM cards");
+        jdbcTemplate.update("DELETE FROM users");
+        activeIds.clear();
+        Long ownerId = userRepository.save(new User(null, "expiry", "password", Role.USER, true, null)).getId();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < EXPIRED; i++) {
+            insertCard(ownerId, today.minusDays(1 + i), "ACTIVE");
+        }
+        activeIds.add(insertCard(ownerId, today, "ACTIVE"));
+        activeIds.add(insertCard(ownerId, today.plusYears(5), "ACTIVE"));
+        insertCard(ownerId, today.minusDays(1), "BLOCKED");
+    }
+
+    @Test
+    void sweep_ShouldExpireOnlyActiveCardsPastExpiryDate() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        sweeper.bindTo(registry);
+        double expiredBefore = registry.get("cards.expiry.expired").functionCounter().count();
+        double chunksBefore = registry.get("cards.expiry.chunks").functionCounter().count();
+
+        Assertions.assertEquals(EXPIRED, sweeper.sweep());
+        Assertions.assertEquals(0, sweeper.sweep());
+
+        Assertions.assertEquals(EXPIRED, count("EXPIRED"));
+        Assertions.assertEquals(2, count("ACTIVE"));
+        Assertions.assertEquals(1, count("BLOCKED"));
+        Assertions.assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cards WHERE status = 'ACTIVE' " +
+                "AND card_id IN (?, ?)", Integer.class, activeIds.get(0), activeIds.get(1)));
+        Assertions.assertEquals(EXPIRED, registry.get("cards.expiry.expired").functionCounter().count() - expiredBefore);
+        Assertions.assertEquals(10, registry.get("cards.expiry.chunks").functionCounter().count() - chunksBefore);
+    }
+
+    @Test
+    void sweep_ShouldExpireEachCardOnce_WhenNodesRunConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(sweeper::sweep));
+        }
+        int total = 0;
+        for (Future<Integer> future : futures) {
+            total += future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        total += sweeper.sweep();
+
+        Assertions.assertEquals(EXPIRED, total);
+        Assertions.assertEquals(EXPIRED, count("EXPIRED"));
+    }
+
+    private int count(String status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cards WHERE status = ?", Integer.class, status);
+    }
+
+    private UUID insertCard(Long ownerId, LocalDate expiryDate, String status) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO cards (card_id, card_number, owner_id, expiration_date, status, balance) " +
+                "VALUES (?, ?, ?, ?, ?, 0)", id, id.toString(), ownerId, expiryDate, status);
+        return id;
+    }
+}
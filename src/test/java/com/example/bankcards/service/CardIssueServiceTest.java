@@ -0,0 +1,117 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.JpaTestConfig;
+import com.example.bankcards.dto.CardIssueRequest;
+import com.example.bankcards.dto.CardIssueResult;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumberAllocator;
+import com.example.bankcards.util.CardNumberHasher;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Тестирование пакетного выпуска карт
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@DataJpaTest(properties = {"bank.card.issue.chunk-size=10", "bank.card.issue.max-count=100"})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CardIssueService.class, CardNumberAllocator.class, CardNumberHasher.class, JpaTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CardIssueServiceTest {
+
+    @Autowired
+    CardIssueService cardIssueService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Long ownerId1;
+    private Long ownerId2;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM card_transactions");
+        jdbcTemplate.update("DELETE FROM cards");
+        jdbcTemplate.update("DELETE FROM users");
+        ownerId1 = userRepository.save(new User(null, "issue1", "password1", Role.USER, true, null)).getId();
+        ownerId2 = userRepository.save(new User(null, "issue2", "password2", Role.USER, true, null)).getId();
+    }
+
+    @Test
+    void issue_ShouldIssueCardsAcrossChunksAndRejectInvalidRows() {
+        List<CardIssueRequest> rows = new ArrayList<>(List.of(
+                new CardIssueRequest(ownerId1, 25),
+                new CardIssueRequest(-1L, 2),
+                new CardIssueRequest(ownerId2, 3),
+                new CardIssueRequest(ownerId1, 0),
+                new CardIssueRequest(),
+                CardIssueRequest.malformed()));
+        for (int i = 0; i < 7; i++) {
+            rows.add(new CardIssueRequest(ownerId2, 1));
+        }
+        List<CardIssueResult> results = new ArrayList<>();
+
+        long issued = cardIssueService.issue(rows.iterator(), results::add);
+
+        Assertions.assertEquals(35, issued);
+        Assertions.assertEquals(rows.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            Assertions.assertEquals(i, results.get(i).getIndex());
+        }
+        Assertions.assertEquals(25, results.get(0).getCardIds().size());
+        Assertions.assertEquals("Пользователь не найден", results.get(1).getMessage());
+        Assertions.assertEquals(3, results.get(2).getCardIds().size());
+        Assertions.assertFalse(results.get(3).isSuccess());
+        Assertions.assertEquals("Не указан владелец карты", results.get(4).getMessage());
+        Assertions.assertEquals("Некорректная строка пакета", results.get(5).getMessage());
+        Assertions.assertTrue(results.get(12).isSuccess());
+
+        Set<UUID> owner1Cards = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT card_id FROM cards WHERE owner_id = ?", UUID.class, ownerId1));
+        Assertions.assertEquals(new HashSet<>(results.get(0).getCardIds()), owner1Cards);
+        Assertions.assertEquals(35, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT card_number_hash) FROM cards WHERE status = 'ACTIVE' AND card_last4 IS NOT NULL",
+                Integer.class));
+    }
+
+    @Test
+    void issue_ShouldRejectRowsOfFailedChunk() {
+        List<CardIssueRequest> rows = List.of(new CardIssueRequest(ownerId1, 3), new CardIssueRequest(ownerId2, 2));
+        List<CardIssueResult> results = new ArrayList<>();
+        jdbcTemplate.execute("ALTER TABLE cards ADD CONSTRAINT cards_issue_fails CHECK (balance < 0)");
+        try {
+            long issued = cardIssueService.issue(rows.iterator(), results::add);
+
+            Assertions.assertEquals(0, issued);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE cards DROP CONSTRAINT cards_issue_fails");
+        }
+        Assertions.assertEquals(2, results.size());
+        for (CardIssueResult result : results) {
+            Assertions.assertFalse(result.isSuccess());
+            Assertions.assertEquals("Не удалось выпустить часть карт", result.getMessage());
+        }
+        Assertions.assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cards", Integer.class));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.JpaTestConfig;
+import com.example.bankcards.dto.CardView;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardNumberHashListener;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.Status;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumberEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Тестирование заполнения вычисляемых из номера колонок карты
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CardNumberBackfill.class, CardNumberEncryptor.class, CardNumberHasher.class, CardNumberHashListener.class,
+        JpaTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CardNumberBackfillTest {
+
+    @Autowired
+    CardNumberBackfill backfill;
+    @Autowired
+    CardRepository cardRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CardNumberHasher cardNumberHasher;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM card_transactions");
+        jdbcTemplate.update("DELETE FROM cards");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void run_ShouldFillLast4_WhenColumnEmpty() {
+        User user = userRepository.save(new User(null, "backfill", "password", Role.USER, true, null));
+        for (int i = 0; i < 3; i++) {
+            cardRepository.save(new Card(null, "400000000000123" + i, LocalDate.now(), Status.ACTIVE,
+                    BigDecimal.ZERO, user));
+        }
+        cardRepository.save(new Card(null, "short", LocalDate.now(), Status.ACTIVE, BigDecimal.ZERO, user));
+        jdbcTemplate.update("UPDATE cards SET card_last4 = NULL, card_number_hash = NULL");
+
+        backfill.run(null);
+
+        List<String> last4 = cardRepository.findAllViews().stream().map(CardView::cardLast4)
+                .sorted(Comparator.nullsLast(Comparator.naturalOrder())).toList();
+        Assertions.assertEquals(4, last4.size());
+        Assertions.assertEquals(List.of("1230", "1231", "1232"), last4.subList(0, 3));
+        Assertions.assertNull(last4.get(3));
+        Assertions.assertTrue(cardRepository.findByCardNumberHash(cardNumberHasher.hash("4000000000001231")).isPresent());
+        Assertions.assertTrue(cardRepository.findWithoutNumberHash(new UUID(0, 0), 10).isEmpty());
+    }
+
+    @Test
+    void run_ShouldSkipDuplicateCardNumberOnNextStart() {
+        User user = userRepository.save(new User(null, "skipped", "password", Role.USER, true, null));
+        Card original = cardRepository.save(new Card(null, "4000000000007777", LocalDate.now(), Status.ACTIVE,
+                BigDecimal.ZERO, user));
+        Card copy = cardRepository.save(new Card(null, "4000000000008888", LocalDate.now(), Status.ACTIVE,
+                BigDecimal.ZERO, user));
+        jdbcTemplate.update("UPDATE cards SET card_number = (SELECT card_number FROM cards WHERE card_id = ?), " +
+                "card_number_hash = NULL, card_last4 = NULL WHERE card_id = ?", original.getCardId(), copy.getCardId());
+
+        backfill.run(null);
+
+        Assertions.assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT card_number_hash_skipped FROM cards WHERE card_id = ?", Boolean.class, copy.getCardId()));
+        Assertions.assertEquals("7777", jdbcTemplate.queryForObject(
+                "SELECT card_last4 FROM cards WHERE card_id = ?", String.class, copy.getCardId()));
+        Assertions.assertTrue(cardRepository.findWithoutNumberHash(new UUID(0, 0), 10).isEmpty());
+        Assertions.assertEquals(original.getCardId(),
+                cardRepository.findByCardNumberHash(cardNumberHasher.hash("4000000000007777")).orElseThrow().getCardId());
+    }
+
+    @Test
+    void save_ShouldRejectDuplicateCardNumber() {
+        User user = userRepository.save(new User(null, "duplicate", "password", Role.USER, true, null));
+        cardRepository.save(new Card(null, "4000000000005555", LocalDate.now(), Status.ACTIVE, BigDecimal.ZERO, user));
+
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> cardRepository.save(
+                new Card(null, "4000000000005555", LocalDate.now(), Status.ACTIVE, BigDecimal.ZERO, user)));
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.JpaTestConfig;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardNumberHashListener;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.Status;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.CardNoSuchException;
+import com.example.bankcards.exception.MyIllegalArgumentException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardMapper;
+import com.example.bankcards.util.CardNumberAllocator;
+import com.example.bankcards.util.CardNumberEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.Utils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Тестирование количества SQL-запросов при чтении, создании и изменении карт
+ * <p>
+ * Чтение списка карт должно выполняться одним запросом независимо от количества карт и владельцев,
+ * карты с идентификаторами, назначенными приложением, - вставляться пакетами, смена статуса
+ * и удаление - выполняться одним запросом без загрузки карты, а частичное изменение - загружать карту
+ * один раз и записывать только измененные колонки.
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.example.bankcards.service.CardQueryStatementCountTest$LastUpdate"})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CardService.class, CardMapper.class, Utils.class, CardNumberHasher.class, CardNumberAllocator.class,
+        CardCache.class, CacheInvalidationBus.class, CardNumberEncryptor.class, CardNumberHashListener.class,
+        JpaTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CardQueryStatementCountTest {
+
+    @Autowired
+    CardService cardService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CardRepository cardRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM card_transactions");
+        jdbcTemplate.update("DELETE FROM cards");
+        jdbcTemplate.update("DELETE FROM users");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void listQueries_ShouldRunOneStatement_WhateverTheNumberOfCards(int cards) {
+        List<UUID> ids = new ArrayList<>();
+        Long ownerId = null;
+        for (int i = 0; i < cards; i++) {
+            Long userId = userRepository.save(new User(null, "user" + i, "password" + i, Role.USER, true, null)).getId();
+            ownerId = ownerId == null ? userId : ownerId;
+            UUID id = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO cards (card_id, card_number, owner_id, expiration_date, status, balance) " +
+                    "VALUES (?, ?, ?, CURRENT_DATE, 'ACTIVE', 0)", id, "number" + i, i % 2 == 0 ? ownerId : userId);
+            ids.add(id);
+        }
+        statistics.clear();
+
+        Assertions.assertEquals(cards, cardService.findAll().size());
+        assertStatements(1);
+
+        cardService.findByOwnerId(ownerId, 1, cards);
+        assertStatements(1);
+
+        cardService.findByOwnerIdAfter(ownerId, null, cards);
+        assertStatements(1);
+
+        Assertions.assertEquals(ids.get(0), cardService.findById(ids.get(0)).getId());
+        assertStatements(1);
+    }
+
+    @Test
+    void saveAll_ShouldInsertCardsInJdbcBatches() {
+        User owner = userRepository.save(new User(null, "batch", "password", Role.USER, true, null));
+        List<Card> cards = IntStream.range(0, 100)
+                .mapToObj(i -> new Card(null, String.format("4000%012d", i), LocalDate.now(), Status.ACTIVE,
+                        BigDecimal.ZERO, owner))
+                .toList();
+        statistics.clear();
+
+        List<Card> saved = cardRepository.saveAll(cards);
+
+        Assertions.assertEquals(100, statistics.getEntityInsertCount());
+        assertStatements(1);
+        for (int i = 1; i < saved.size(); i++) {
+            Assertions.assertEquals(7, saved.get(i).getCardId().version());
+            Assertions.assertTrue(saved.get(i - 1).getCardId().compareTo(saved.get(i).getCardId()) < 0);
+        }
+    }
+
+    @Test
+    void setStatusAndDelete_ShouldRunOneStatementWithoutLoadingCard() {
+        Long ownerId = userRepository.save(new User(null, "single", "password", Role.USER, true, null)).getId();
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO cards (card_id, card_number, owner_id, expiration_date, status, balance) " +
+                "VALUES (?, ?, ?, CURRENT_DATE, 'ACTIVE', 0)", id, "number", ownerId);
+        statistics.clear();
+
+        cardService.setStatus(id.toString(), "BLOCKED");
+        Assertions.assertEquals(0, statistics.getEntityLoadCount());
+        assertStatements(1);
+        Assertions.assertEquals("BLOCKED", jdbcTemplate.queryForObject(
+                "SELECT status FROM cards WHERE card_id = ?", String.class, id));
+
+        cardService.delete(id);
+        Assertions.assertEquals(0, statistics.getEntityLoadCount());
+        assertStatements(1);
+
+        Assertions.assertThrows(CardNoSuchException.class, () -> cardService.setStatus(id.toString(), "ACTIVE"));
+        Assertions.assertThrows(CardNoSuchException.class, () -> cardService.delete(id));
+        assertStatements(3);
+    }
+
+    @Test
+    void delete_WithLedgerHistory_ShouldKeepCardAndLedger() {
+        Long ownerId = userRepository.save(new User(null, "history", "password", Role.USER, true, null)).getId();
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO cards (card_id, card_number, owner_id, expiration_date, status, balance) " +
+                "VALUES (?, ?, ?, CURRENT_DATE, 'ACTIVE', 10)", id, "number", ownerId);
+        jdbcTemplate.update("INSERT INTO card_transactions (transfer_id, card_id, type, amount) " +
+                "VALUES (?, ?, 'ADJUSTMENT', 10)", UUID.randomUUID(), id);
+
+        Assertions.assertThrows(MyIllegalArgumentException.class, () -> cardService.delete(id));
+
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cards WHERE card_id = ?", Integer.class, id));
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM card_transactions WHERE card_id = ?", Integer.class, id));
+    }
+
+    @Test
+    void patch_ShouldLoadCardOnceAndWriteOnlyChangedColumns() {
+        User owner = userRepository.save(new User(null, "patch", "password", Role.USER, true, null));
+        UUID id = cardRepository.save(new Card(null, "4000000000000002", LocalDate.now(), Status.ACTIVE,
+                BigDecimal.TEN, owner)).getCardId();
+        String encrypted = jdbcTemplate.queryForObject("SELECT card_number FROM cards WHERE card_id = ?",
+                String.class, id);
+        statistics.clear();
+
+        cardService.patch(id, card -> {
+            card.setStatus(Status.BLOCKED);
+            return card;
+        });
+        // карта и владелец загружаются одним запросом
+        Assertions.assertEquals(2, statistics.getEntityLoadCount());
+        assertStatements(2);
+        Assertions.assertFalse(LastUpdate.sql.contains("card_number"), LastUpdate.sql);
+        Assertions.assertEquals(encrypted, jdbcTemplate.queryForObject(
+                "SELECT card_number FROM cards WHERE card_id = ?", String.class, id));
+
+        cardService.patch(id, card -> {
+            card.setBalance(BigDecimal.ONE);
+            return card;
+        });
+        // корректировка баланса добавляет запись в журнал; номер записи берется из пула последовательности
+        Assertions.assertEquals(1, statistics.getEntityInsertCount());
+        Assertions.assertTrue(LastUpdate.sql.contains("balance") && !LastUpdate.sql.contains("card_number"),
+                LastUpdate.sql);
+        statistics.clear();
+
+        cardService.patch(id, card -> {
+            card.setCardNumber("4000 0000 0000 0010");
+            return card;
+        });
+        assertStatements(2);
+        Assertions.assertTrue(LastUpdate.sql.contains("card_number"), LastUpdate.sql);
+        Assertions.assertEquals("0010", jdbcTemplate.queryForObject(
+                "SELECT card_last4 FROM cards WHERE card_id = ?", String.class, id));
+    }
+
+    private void assertStatements(long expected) {
+        Assertions.assertEquals(expected, statistics.getPrepareStatementCount());
+        statistics.clear();
+    }
+
+    /**
+     * Запоминает последний выполненный запрос изменения
+     */
+    public static class LastUpdate implements StatementInspector {
+
+        static volatile String sql;
+
+        @Override
+        public String inspect(String statement) {
+            if (statement.startsWith("update")) {
+                sql = statement;
+            }
+            return statement;
+        }
+    }
+}
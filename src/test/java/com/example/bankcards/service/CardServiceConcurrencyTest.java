@@ -0,0 +1,171 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.JpaTestConfig;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.Status;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.MyIllegalArgumentException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardMapper;
+import com.example.bankcards.util.CardNumberAllocator;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.Utils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Тестирование CardService под конкурентной нагрузкой
+ * <p>
+ * Тысячи параллельных встречных переводов между небольшим набором карт не должны
+ * ни создавать, ни терять деньги, уводить баланс в минус или приводить к взаимоблокировкам.
+ * Корректировка баланса администратором, выполняемая одновременно с переводами, не должна
+ * затирать их результат и расходиться с журналом.
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CardService.class, CardMapper.class, Utils.class, CardNumberHasher.class, CardNumberAllocator.class,
+        CardCache.class, CacheInvalidationBus.class, JpaTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CardServiceConcurrencyTest {
+
+    private static final int CARDS = 8;
+    private static final int TRANSFERS = 4000;
+    private static final int THREADS = 16;
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1000);
+
+    @Autowired
+    CardService cardService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CardRepository cardRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> cardIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM card_transactions");
+        jdbcTemplate.update("DELETE FROM cards");
+        jdbcTemplate.update("DELETE FROM users");
+        User user = userRepository.save(new User(null, "concurrent", "password", Role.USER, true, null));
+        for (int i = 0; i < CARDS; i++) {
+            UUID id = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO cards (card_id, card_number, owner_id, expiration_date, status, balance) " +
+                    "VALUES (?, ?, ?, CURRENT_DATE, 'ACTIVE', ?)", id, "number" + i, user.getId(), INITIAL_BALANCE);
+            cardIds.add(id);
+        }
+    }
+
+    @Test
+    void transferMoney_ShouldKeepTotalBalance_WhenTransfersRunInParallel() throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                UUID from = cardIds.get(random.nextInt(CARDS));
+                UUID to = cardIds.get(random.nextInt(CARDS));
+                BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 400));
+                try {
+                    cardService.transferMoney(from.toString(), to.toString(), amount);
+                    succeeded.incrementAndGet();
+                } catch (MyIllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        BigDecimal total = jdbcTemplate.queryForObject("SELECT SUM(balance) FROM cards", BigDecimal.class);
+        Integer negative = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cards WHERE balance < 0", Integer.class);
+        Integer ledgerEntries = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM card_transactions", Integer.class);
+        BigDecimal ledgerTotal = jdbcTemplate.queryForObject("SELECT SUM(amount) FROM card_transactions", BigDecimal.class);
+
+        Assertions.assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(CARDS)).compareTo(total));
+        Assertions.assertEquals(0, negative);
+        Assertions.assertEquals(TRANSFERS, succeeded.get() + rejected.get());
+        Assertions.assertTrue(succeeded.get() > 0);
+        Assertions.assertEquals(2 * succeeded.get(), ledgerEntries);
+        Assertions.assertEquals(0, BigDecimal.ZERO.compareTo(ledgerTotal));
+    }
+
+    @Test
+    void patch_ShouldNotOverwriteConcurrentTransfers() throws Exception {
+        User owner = userRepository.save(new User(null, "adjusted", "password2", Role.USER, true, null));
+        UUID adjusted = cardRepository.save(new Card(null, "4000000000000002", LocalDate.now().plusYears(1),
+                Status.ACTIVE, INITIAL_BALANCE, owner)).getCardId();
+        UUID other = cardIds.get(0);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < TRANSFERS / 4; i++) {
+            boolean adjust = i % 10 == 0;
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                if (adjust) {
+                    BigDecimal balance = BigDecimal.valueOf(random.nextInt(500, 1500));
+                    cardService.patch(adjusted, card -> {
+                        card.setBalance(balance);
+                        return card;
+                    });
+                    return;
+                }
+                boolean outgoing = random.nextBoolean();
+                try {
+                    cardService.transferMoney((outgoing ? adjusted : other).toString(),
+                            (outgoing ? other : adjusted).toString(), BigDecimal.valueOf(random.nextInt(1, 50)));
+                } catch (MyIllegalArgumentException e) {
+                    // нехватка средств допустима
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // баланс каждой карты равен начальному плюс сумма её записей в журнале
+        for (UUID id : List.of(adjusted, other)) {
+            BigDecimal balance = jdbcTemplate.queryForObject("SELECT balance FROM cards WHERE card_id = ?",
+                    BigDecimal.class, id);
+            BigDecimal ledger = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(amount), 0) FROM card_transactions WHERE card_id = ?", BigDecimal.class, id);
+            Assertions.assertEquals(0, INITIAL_BALANCE.add(ledger).compareTo(balance));
+        }
+    }
+}
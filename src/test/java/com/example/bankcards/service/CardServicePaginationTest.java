@@ -0,0 +1,102 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.JpaTestConfig;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardSliceDto;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardMapper;
+import com.example.bankcards.util.CardNumberAllocator;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.Utils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Тестирование постраничного вывода и потоковой выгрузки карт
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CardService.class, CardMapper.class, Utils.class, CardNumberHasher.class, CardNumberAllocator.class,
+        CardCache.class, CacheInvalidationBus.class, JpaTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CardServicePaginationTest {
+
+    private static final int CARDS = 10;
+
+    @Autowired
+    CardService cardService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM card_transactions");
+        jdbcTemplate.update("DELETE FROM cards");
+        jdbcTemplate.update("DELETE FROM users");
+        ownerId = userRepository.save(new User(null, "owner", "password", Role.USER, true, null)).getId();
+        Long otherId = userRepository.save(new User(null, "other", "password2", Role.USER, true, null)).getId();
+        for (int i = 0; i < CARDS; i++) {
+            insertCard(ownerId, "owner" + i);
+            insertCard(otherId, "other" + i);
+        }
+    }
+
+    @Test
+    void findByOwnerIdAfter_ShouldReturnEveryCardOnce_WhenFollowingCursor() {
+        List<CardDto> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CardSliceDto slice = cardService.findByOwnerIdAfter(ownerId, cursor, 3);
+            seen.addAll(slice.getCards());
+            cursor = slice.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        Set<UUID> ids = new HashSet<>();
+        seen.forEach(card -> ids.add(card.getId()));
+        Assertions.assertEquals(4, pages);
+        Assertions.assertEquals(CARDS, seen.size());
+        Assertions.assertEquals(CARDS, ids.size());
+        Assertions.assertTrue(seen.stream().allMatch(card -> "owner".equals(card.getOwnerName())));
+    }
+
+    @Test
+    void exportAll_ShouldStreamEveryCard() {
+        List<CardDto> exported = new ArrayList<>();
+
+        cardService.exportAll(exported::add);
+
+        Assertions.assertEquals(2 * CARDS, exported.size());
+    }
+
+    private void insertCard(Long owner, String number) {
+        jdbcTemplate.update("INSERT INTO cards (card_id, card_number, owner_id, expiration_date, status, balance) " +
+                "VALUES (?, ?, ?, CURRENT_DATE, 'ACTIVE', 0)", UUID.randomUUID(), number, owner);
+    }
+}
@@ -1,16 +1,23 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.TransferLeg;
+import com.example.bankcards.dto.TransferResult;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardTransaction;
 import com.example.bankcards.entity.Status;
+import com.example.bankcards.entity.TransactionType;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.CardNoSuchException;
 import com.example.bankcards.exception.MyIllegalArgumentException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardTransactionRepository;
 import com.example.bankcards.util.Utils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -18,7 +25,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.Clock;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -38,7 +47,11 @@ public class CardServiceTest {
     @Mock
     private CardRepository cardRepository;
     @Mock
+    private CardTransactionRepository cardTransactionRepository;
+    @Mock
     private Utils utils;
+    @Mock
+    private CardCache cardCache;
 
     @InjectMocks
     private CardService cardService;
@@ -77,37 +90,52 @@ public class CardServiceTest {
     @Test
     public void transferMoney_ShouldTransferSuccessfully_WhenValidData() {
 
-        when(cardRepository.findById(uuid1)).thenReturn(Optional.of(card1));
-        when(cardRepository.findById(uuid2)).thenReturn(Optional.of(card2));
+        when(cardRepository.lockAllById(Set.of(uuid1, uuid2))).thenReturn(List.of(uuid1, uuid2));
+        when(cardRepository.debit(uuid2, BigDecimal.valueOf(400.89))).thenReturn(1);
+        when(cardRepository.credit(uuid1, BigDecimal.valueOf(400.89))).thenReturn(1);
 
         cardService.transferMoney(uuid2.toString(), uuid1.toString(), BigDecimal.valueOf(400.89));
 
-        Assertions.assertEquals(BigDecimal.valueOf(400.89), card1.getBalance());
-        Assertions.assertEquals(BigDecimal.valueOf(599.11), card2.getBalance());
-        verify(cardRepository, times(2)).save(any(Card.class));
-        verify(cardRepository).save(card1);
-        verify(cardRepository).save(card2);
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).lockAllById(Set.of(uuid1, uuid2));
+        inOrder.verify(cardRepository).debit(uuid2, BigDecimal.valueOf(400.89));
+        inOrder.verify(cardRepository).credit(uuid1, BigDecimal.valueOf(400.89));
+        verify(cardRepository, never()).findById(any());
+        verify(cardRepository, never()).save(any(Card.class));
+
+        ArgumentCaptor<List<CardTransaction>> ledgerCaptor = ArgumentCaptor.forClass(List.class);
+        verify(cardTransactionRepository).saveAll(ledgerCaptor.capture());
+        List<CardTransaction> ledger = ledgerCaptor.getValue();
+        Assertions.assertEquals(2, ledger.size());
+        Assertions.assertEquals(uuid2, ledger.get(0).getCardId());
+        Assertions.assertEquals(TransactionType.DEBIT, ledger.get(0).getType());
+        Assertions.assertEquals(BigDecimal.valueOf(-400.89), ledger.get(0).getAmount());
+        Assertions.assertEquals(uuid1, ledger.get(1).getCardId());
+        Assertions.assertEquals(TransactionType.CREDIT, ledger.get(1).getType());
+        Assertions.assertEquals(BigDecimal.valueOf(400.89), ledger.get(1).getAmount());
+        Assertions.assertEquals(ledger.get(0).getTransferId(), ledger.get(1).getTransferId());
     }
 
     @Test
     public void transferMoney_ShouldThrowCardNoSuchException_WhenFirstCardNotFound() {
 
-        when(cardRepository.findById(uuid1)).thenReturn(Optional.empty());
+        when(cardRepository.lockAllById(Set.of(uuid1, uuid2))).thenReturn(List.of(uuid2));
 
         Assertions.assertThrows(CardNoSuchException.class, () -> cardService.transferMoney(uuid1.toString(), uuid2.toString(), BigDecimal.valueOf(400)));
-        verify(cardRepository, never()).save(any(Card.class));
+        verify(cardRepository, never()).debit(any(), any());
+        verify(cardRepository, never()).credit(any(), any());
     }
 
     @Test
     void transferMoney_ShouldThrowCardNoSuchException_WhenSecondCardNotFound() {
 
-        when(cardRepository.findById(uuid1)).thenReturn(Optional.of(card1));
-        when(cardRepository.findById(uuid2)).thenReturn(Optional.empty());
+        when(cardRepository.lockAllById(Set.of(uuid1, uuid2))).thenReturn(List.of(uuid1));
 
         Assertions.assertThrows(CardNoSuchException.class,
                 () -> cardService.transferMoney(uuid1.toString(), uuid2.toString(), BigDecimal.valueOf(400)));
 
-        verify(cardRepository, never()).save(any(Card.class));
+        verify(cardRepository, never()).debit(any(), any());
+        verify(cardRepository, never()).credit(any(), any());
     }
 
     @Test
@@ -116,20 +144,86 @@ public class CardServiceTest {
         MyIllegalArgumentException e = Assertions.assertThrows(MyIllegalArgumentException.class,
                 () -> cardService.transferMoney(uuid1.toString(), uuid2.toString(), BigDecimal.ZERO));
 
-        verify(cardRepository, never()).save(any(Card.class));
+        verifyNoInteractions(cardRepository);
         verify(utils, never()).transformNumber(anyString());
         Assertions.assertEquals("Введите сумму больше нуля", e.getMessage());
     }
 
     @Test
     void transferMoney_ShouldThrowMyIllegalArgumentException_WhenInsufficientFunds() {
-        when(cardRepository.findById(uuid1)).thenReturn(Optional.of(card1));
-        when(cardRepository.findById(uuid2)).thenReturn(Optional.of(card2));
+        when(cardRepository.lockAllById(Set.of(uuid1, uuid2))).thenReturn(List.of(uuid1, uuid2));
+        when(cardRepository.debit(uuid1, BigDecimal.valueOf(1400))).thenReturn(0);
+        when(cardRepository.findStatusById(uuid1)).thenReturn(Optional.of(Status.ACTIVE));
 
         MyIllegalArgumentException e = Assertions.assertThrows(MyIllegalArgumentException.class,
                 () -> cardService.transferMoney(uuid1.toString(), uuid2.toString(), BigDecimal.valueOf(1400)));
 
-        verify(cardRepository, never()).save(any(Card.class));
+        verify(cardRepository, never()).credit(any(), any());
+        verifyNoInteractions(cardTransactionRepository);
         Assertions.assertEquals("Недостаточно денег", e.getMessage());
     }
+
+    @Test
+    void transferMoney_ShouldThrowMyIllegalArgumentException_WhenSourceCardBlocked() {
+        when(cardRepository.lockAllById(Set.of(uuid1, uuid2))).thenReturn(List.of(uuid1, uuid2));
+        when(cardRepository.debit(uuid1, BigDecimal.TEN)).thenReturn(0);
+        when(cardRepository.findStatusById(uuid1)).thenReturn(Optional.of(Status.BLOCKED));
+
+        MyIllegalArgumentException e = Assertions.assertThrows(MyIllegalArgumentException.class,
+                () -> cardService.transferMoney(uuid1.toString(), uuid2.toString(), BigDecimal.TEN));
+
+        verify(cardRepository, never()).credit(any(), any());
+        Assertions.assertEquals("Карта-отправитель не активна", e.getMessage());
+    }
+
+    @Test
+    void transferChunk_ShouldLockAllCardsOnceAndReportEachLeg() {
+        UUID missing = UUID.randomUUID();
+        UUID foreign = UUID.randomUUID();
+        List<TransferLeg> legs = List.of(
+                new TransferLeg(uuid2, uuid1, BigDecimal.TEN),
+                new TransferLeg(uuid1, uuid2, BigDecimal.valueOf(5000)),
+                new TransferLeg(uuid1, missing, BigDecimal.ONE),
+                new TransferLeg(uuid2, uuid1, BigDecimal.ZERO),
+                new TransferLeg(foreign, uuid1, BigDecimal.ONE));
+        when(cardRepository.lockAllById(Set.of(uuid1, uuid2, missing, foreign)))
+                .thenReturn(List.of(uuid1, uuid2, foreign));
+        when(cardRepository.findIdsByOwnerId(Set.of(uuid1, uuid2, foreign), 7L)).thenReturn(Set.of(uuid1, uuid2));
+        when(cardRepository.debit(uuid2, BigDecimal.TEN)).thenReturn(1);
+        when(cardRepository.debit(uuid1, BigDecimal.valueOf(5000))).thenReturn(0);
+        when(cardRepository.findStatusById(uuid1)).thenReturn(Optional.of(Status.ACTIVE));
+
+        List<TransferResult> results = cardService.transferChunk(7L, legs, 100);
+
+        Assertions.assertEquals(List.of(
+                TransferResult.ok(100),
+                TransferResult.rejected(101, "Недостаточно денег"),
+                TransferResult.rejected(102, "Карта не найдена"),
+                TransferResult.rejected(103, "Введите сумму больше нуля"),
+                TransferResult.rejected(104, "Карта-отправитель не принадлежит пользователю")), results);
+        verify(cardRepository, times(1)).lockAllById(any());
+        verify(cardRepository).credit(uuid1, BigDecimal.TEN);
+        verify(cardRepository, times(1)).credit(any(), any());
+        ArgumentCaptor<List<CardTransaction>> ledgerCaptor = ArgumentCaptor.forClass(List.class);
+        verify(cardTransactionRepository).saveAll(ledgerCaptor.capture());
+        Assertions.assertEquals(2, ledgerCaptor.getValue().size());
+    }
+
+    @Test
+    void transferChunk_WithOnlyNullCardIds_ShouldRejectEachLeg() {
+        List<TransferLeg> legs = List.of(
+                new TransferLeg(null, uuid2, BigDecimal.TEN),
+                new TransferLeg(uuid1, null, BigDecimal.ONE),
+                new TransferLeg(null, null, BigDecimal.ONE));
+
+        List<TransferResult> results = cardService.transferChunk(7L, legs, 0);
+
+        Assertions.assertEquals(List.of(
+                TransferResult.rejected(0, "Карта не найдена"),
+                TransferResult.rejected(1, "Карта не найдена"),
+                TransferResult.rejected(2, "Карта не найдена")), results);
+        verify(cardRepository, never()).lockAllById(any());
+        verify(cardRepository, never()).debit(any(), any());
+        verify(cardTransactionRepository, never()).saveAll(any());
+    }
 }
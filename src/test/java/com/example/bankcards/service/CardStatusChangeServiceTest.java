@@ -0,0 +1,118 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.JpaTestConfig;
+import com.example.bankcards.dto.CardStatusChangeDto;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.Status;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.MyIllegalArgumentException;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumberHasher;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Тестирование массовой смены статуса карт
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@DataJpaTest(properties = "bank.card.status-change.chunk-size=10")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CardStatusChangeService.class, CardCache.class, CacheInvalidationBus.class, CardNumberHasher.class,
+        JpaTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CardStatusChangeServiceTest {
+
+    @Autowired
+    CardStatusChangeService cardStatusChangeService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Long ownerId1;
+    private Long ownerId2;
+    private final List<UUID> owner1Active = new ArrayList<>();
+    private final List<UUID> owner1Blocked = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM card_transactions");
+        jdbcTemplate.update("DELETE FROM cards");
+        jdbcTemplate.update("DELETE FROM users");
+        owner1Active.clear();
+        owner1Blocked.clear();
+        ownerId1 = userRepository.save(new User(null, "status1", "password1", Role.USER, true, null)).getId();
+        ownerId2 = userRepository.save(new User(null, "status2", "password2", Role.USER, true, null)).getId();
+        LocalDate expiry = LocalDate.now().plusYears(1);
+        for (int i = 0; i < 25; i++) {
+            owner1Active.add(insertCard(ownerId1, expiry, "ACTIVE"));
+        }
+        for (int i = 0; i < 3; i++) {
+            owner1Blocked.add(insertCard(ownerId1, expiry, "BLOCKED"));
+        }
+        for (int i = 0; i < 5; i++) {
+            insertCard(ownerId2, expiry, "ACTIVE");
+        }
+    }
+
+    @Test
+    void changeStatus_ByFilter_ShouldUpdateOnlyMatchingCardsAcrossChunks() {
+        CardStatusChangeDto change = new CardStatusChangeDto(null, ownerId1, null, null, Status.BLOCKED);
+
+        Assertions.assertEquals(25, cardStatusChangeService.changeStatus(change).getUpdated());
+
+        Assertions.assertEquals(28, count(ownerId1, "BLOCKED"));
+        Assertions.assertEquals(5, count(ownerId2, "ACTIVE"));
+        Assertions.assertEquals(0, cardStatusChangeService.changeStatus(change).getUpdated());
+    }
+
+    @Test
+    void changeStatus_ByIds_ShouldCountOnlyChangedCards() {
+        List<UUID> ids = new ArrayList<>(owner1Active.subList(0, 12));
+        ids.add(owner1Blocked.get(0));
+        ids.add(UUID.randomUUID());
+
+        CardStatusChangeDto change = new CardStatusChangeDto(ids, null, null, null, Status.BLOCKED);
+
+        Assertions.assertEquals(12, cardStatusChangeService.changeStatus(change).getUpdated());
+        Assertions.assertEquals(15, count(ownerId1, "BLOCKED"));
+    }
+
+    @Test
+    void changeStatus_WithoutIdsAndFilter_ShouldThrow() {
+        CardStatusChangeDto change = new CardStatusChangeDto(null, null, null, null, Status.BLOCKED);
+
+        Assertions.assertThrows(MyIllegalArgumentException.class, () -> cardStatusChangeService.changeStatus(change));
+        Assertions.assertEquals(30, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cards WHERE status = 'ACTIVE'", Integer.class));
+    }
+
+    private int count(Long ownerId, String status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cards WHERE owner_id = ? AND status = ?",
+                Integer.class, ownerId, status);
+    }
+
+    private UUID insertCard(Long ownerId, LocalDate expiryDate, String status) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO cards (card_id, card_number, owner_id, expiration_date, status, balance) " +
+                "VALUES (?, ?, ?, ?, ?, 0)", id, id.toString(), ownerId, expiryDate, status);
+        return id;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.IdempotencyKey;
+import com.example.bankcards.exception.MyIllegalArgumentException;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование IdempotencyService
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger executions = new AtomicInteger();
+    private final Runnable action = executions::incrementAndGet;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyKeyRepository, Duration.ofHours(1), 2, 100);
+    }
+
+    @Test
+    void executeOnce_ShouldRunActionOnce_AndServeRetryFromCache() {
+        when(idempotencyKeyRepository.insertIfAbsent(eq("user"), eq("key"), eq("a:b:10"), any(), any())).thenReturn(1);
+
+        Assertions.assertTrue(idempotencyService.executeOnce("user", "key", "a:b:10", action));
+        Assertions.assertFalse(idempotencyService.executeOnce("user", "key", "a:b:10", action));
+
+        Assertions.assertEquals(1, executions.get());
+        verify(idempotencyKeyRepository, times(1)).insertIfAbsent(any(), any(), any(), any(), any());
+        verify(idempotencyKeyRepository, never()).findById(any());
+    }
+
+    @Test
+    void executeOnce_ShouldNotRunAction_WhenKeyIsStoredInDatabase() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+        when(idempotencyKeyRepository.insertIfAbsent(eq("user"), eq("key"), eq("a:b:10"), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById(new IdempotencyKey.KeyId("user", "key")))
+                .thenReturn(Optional.of(new IdempotencyKey("user", "key", "a:b:10", LocalDateTime.now(), expiresAt)));
+
+        Assertions.assertFalse(idempotencyService.executeOnce("user", "key", "a:b:10", action));
+
+        Assertions.assertEquals(0, executions.get());
+    }
+
+    @Test
+    void executeOnce_ShouldThrow_WhenKeyIsReusedForAnotherRequest() {
+        when(idempotencyKeyRepository.insertIfAbsent(eq("user"), eq("key"), eq("a:b:10"), any(), any())).thenReturn(1);
+        idempotencyService.executeOnce("user", "key", "a:b:10", action);
+
+        Assertions.assertThrows(MyIllegalArgumentException.class,
+                () -> idempotencyService.executeOnce("user", "key", "a:b:20", action));
+        Assertions.assertEquals(1, executions.get());
+    }
+
+    @Test
+    void executeOnce_ShouldNotStoreKey_WhenActionFails() {
+        when(idempotencyKeyRepository.insertIfAbsent(eq("user"), eq("key"), eq("a:b:10"), any(), any())).thenReturn(1);
+
+        Assertions.assertThrows(MyIllegalArgumentException.class, () -> idempotencyService.executeOnce("user", "key", "a:b:10",
+                () -> {
+                    throw new MyIllegalArgumentException("Недостаточно денег");
+                }));
+        idempotencyService.executeOnce("user", "key", "a:b:10", action);
+
+        Assertions.assertEquals(1, executions.get());
+        verify(idempotencyKeyRepository, times(2)).insertIfAbsent(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void executeOnce_ShouldRunAction_WhenSameKeyBelongsToAnotherUser() {
+        when(idempotencyKeyRepository.insertIfAbsent(anyString(), eq("key"), eq("a:b:10"), any(), any())).thenReturn(1);
+
+        Assertions.assertTrue(idempotencyService.executeOnce("user", "key", "a:b:10", action));
+        Assertions.assertTrue(idempotencyService.executeOnce("other", "key", "a:b:10", action));
+
+        Assertions.assertEquals(2, executions.get());
+    }
+
+    @Test
+    void executeOnce_ShouldRetryInsert_WhenStoredKeyDisappeared() {
+        when(idempotencyKeyRepository.insertIfAbsent(eq("user"), eq("key"), eq("a:b:10"), any(), any()))
+                .thenReturn(0, 1);
+        when(idempotencyKeyRepository.findById(new IdempotencyKey.KeyId("user", "key"))).thenReturn(Optional.empty());
+
+        Assertions.assertTrue(idempotencyService.executeOnce("user", "key", "a:b:10", action));
+
+        Assertions.assertEquals(1, executions.get());
+        verify(idempotencyKeyRepository, times(2)).insertIfAbsent(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void executeOnce_ShouldThrow_WhenKeyCannotBeStored() {
+        when(idempotencyKeyRepository.insertIfAbsent(eq("user"), eq("key"), eq("a:b:10"), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById(new IdempotencyKey.KeyId("user", "key"))).thenReturn(Optional.empty());
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> idempotencyService.executeOnce("user", "key", "a:b:10", action));
+        Assertions.assertEquals(0, executions.get());
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteInChunks() {
+        when(idempotencyKeyRepository.deleteExpired(any(), eq(100))).thenReturn(100, 100, 7);
+
+        idempotencyService.purgeExpired();
+
+        verify(idempotencyKeyRepository, times(3)).deleteExpired(any(), eq(100));
+    }
+}
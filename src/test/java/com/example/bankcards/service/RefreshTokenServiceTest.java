@@ -0,0 +1,97 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.JpaTestConfig;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidRefreshTokenException;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumberHasher;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Тестирование ротации токенов обновления
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RefreshTokenService.class, CardNumberHasher.class, JpaTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RefreshTokenServiceTest {
+
+    @Autowired
+    RefreshTokenService refreshTokenService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM refresh_tokens");
+        jdbcTemplate.update("DELETE FROM card_transactions");
+        jdbcTemplate.update("DELETE FROM cards");
+        jdbcTemplate.update("DELETE FROM users");
+        userId = userRepository.save(new User(null, "refresh", "password1", Role.USER, true, null)).getId();
+    }
+
+    @Test
+    void rotate_ShouldIssueNewTokenAndStoreOnlyHash() {
+        String token = refreshTokenService.issue(userId);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(token);
+
+        Assertions.assertEquals(userId, rotation.user().getId());
+        Assertions.assertNotEquals(token, rotation.refreshToken());
+        Assertions.assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM refresh_tokens WHERE token_hash IN (?, ?)", Integer.class,
+                token, rotation.refreshToken()));
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT family_id) FROM refresh_tokens", Integer.class));
+        Assertions.assertNotNull(refreshTokenService.rotate(rotation.refreshToken()).refreshToken());
+    }
+
+    @Test
+    void rotate_ReusedToken_ShouldRevokeWholeFamily() {
+        String token = refreshTokenService.issue(userId);
+        String other = refreshTokenService.issue(userId);
+        String next = refreshTokenService.rotate(token).refreshToken();
+
+        Assertions.assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(token));
+
+        Assertions.assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(next));
+        Assertions.assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM refresh_tokens WHERE revoked = true", Integer.class));
+        Assertions.assertNotNull(refreshTokenService.rotate(other).refreshToken());
+    }
+
+    @Test
+    void rotate_ShouldRejectExpiredUnknownAndDisabledUserTokens() {
+        String expired = refreshTokenService.issue(userId);
+        jdbcTemplate.update("UPDATE refresh_tokens SET expires_at = DATEADD('DAY', -1, CURRENT_TIMESTAMP)");
+        String disabled = refreshTokenService.issue(userId);
+        jdbcTemplate.update("UPDATE users SET enabled = false WHERE id = ?", userId);
+
+        Assertions.assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(expired));
+        Assertions.assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+        Assertions.assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(disabled));
+
+        refreshTokenService.purgeExpired();
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM refresh_tokens WHERE revoked = true", Integer.class));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.bankcards.util;
+
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.jasypt.exceptions.EncryptionOperationNotPossibleException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тестирование AesGcmStringEncryptor
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+public class AesGcmStringEncryptorTest {
+
+    private static final String CARD_NUMBER = "4000123412341234";
+
+    StandardPBEStringEncryptor legacyEncryptor;
+    AesGcmStringEncryptor encryptor;
+
+    @BeforeEach
+    void setUp() {
+        legacyEncryptor = new StandardPBEStringEncryptor();
+        legacyEncryptor.setPassword("test-secret-key");
+        encryptor = new AesGcmStringEncryptor("test-secret-key", legacyEncryptor);
+    }
+
+    @Test
+    void encrypt_ShouldRoundTripWithVersionPrefix() {
+        String encrypted = encryptor.encrypt(CARD_NUMBER);
+
+        Assertions.assertTrue(encrypted.startsWith(AesGcmStringEncryptor.VERSION_PREFIX));
+        Assertions.assertNotEquals(encrypted, encryptor.encrypt(CARD_NUMBER));
+        Assertions.assertEquals(CARD_NUMBER, encryptor.decrypt(encrypted));
+    }
+
+    @Test
+    void decrypt_ShouldReadLegacyValue() {
+        String legacy = legacyEncryptor.encrypt(CARD_NUMBER);
+
+        Assertions.assertEquals(CARD_NUMBER, encryptor.decrypt(legacy));
+    }
+
+    @Test
+    void decrypt_ShouldThrowException_WhenCiphertextTampered() {
+        String encrypted = encryptor.encrypt(CARD_NUMBER);
+        char last = encrypted.charAt(encrypted.length() - 3);
+        String tampered = encrypted.substring(0, encrypted.length() - 3) + (last == 'A' ? 'B' : 'A')
+                + encrypted.substring(encrypted.length() - 2);
+
+        Assertions.assertThrows(EncryptionOperationNotPossibleException.class, () -> encryptor.decrypt(tampered));
+    }
+
+    @Test
+    void decrypt_ShouldThrowException_WhenKeyDiffers() {
+        String encrypted = new AesGcmStringEncryptor("other-secret-key", legacyEncryptor).encrypt(CARD_NUMBER);
+
+        Assertions.assertThrows(EncryptionOperationNotPossibleException.class, () -> encryptor.decrypt(encrypted));
+    }
+}
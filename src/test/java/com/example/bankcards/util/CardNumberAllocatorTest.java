@@ -0,0 +1,111 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.repository.CardRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование CardNumberAllocator
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+@ExtendWith(MockitoExtension.class)
+public class CardNumberAllocatorTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 250_000;
+    private static final long BLOCK_SIZE = 1000;
+
+    @Mock
+    CardRepository cardRepository;
+
+    @Test
+    void next_ShouldIssueUniqueLuhnValidNumbers_WhenCalledConcurrently() throws Exception {
+        AtomicLong sequence = new AtomicLong();
+        when(cardRepository.findCardNumberBlockIncrement()).thenReturn(Optional.of(BLOCK_SIZE));
+        when(cardRepository.nextCardNumberBlock()).thenAnswer(invocation -> sequence.getAndAdd(BLOCK_SIZE));
+        CardNumberAllocator allocator = new CardNumberAllocator(cardRepository, "400000", BLOCK_SIZE);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                long[] numbers = new long[PER_THREAD];
+                for (int i = 0; i < PER_THREAD; i++) {
+                    String number = allocator.next();
+                    Assertions.assertEquals(16, number.length());
+                    Assertions.assertTrue(number.startsWith("400000"));
+                    Assertions.assertTrue(isLuhnValid(number), number);
+                    numbers[i] = Long.parseLong(number);
+                }
+                return numbers;
+            }));
+        }
+        long[] all = new long[THREADS * PER_THREAD];
+        for (int t = 0; t < THREADS; t++) {
+            System.arraycopy(futures.get(t).get(1, TimeUnit.MINUTES), 0, all, t * PER_THREAD, PER_THREAD);
+        }
+        executor.shutdown();
+
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            Assertions.assertNotEquals(all[i - 1], all[i]);
+        }
+        Assertions.assertEquals(THREADS * PER_THREAD / BLOCK_SIZE, sequence.get() / BLOCK_SIZE);
+    }
+
+    @Test
+    void next_ShouldFail_WhenAccountRangeExhausted() {
+        when(cardRepository.findCardNumberBlockIncrement()).thenReturn(Optional.of(BLOCK_SIZE));
+        when(cardRepository.nextCardNumberBlock()).thenReturn(999_999_500L);
+        CardNumberAllocator allocator = new CardNumberAllocator(cardRepository, "400000", BLOCK_SIZE);
+
+        Assertions.assertThrows(IllegalStateException.class, allocator::next);
+    }
+
+    @Test
+    void next_ShouldFail_WhenBlockSizeDiffersFromSequenceIncrement() {
+        when(cardRepository.findCardNumberBlockIncrement()).thenReturn(Optional.of(100L));
+        CardNumberAllocator allocator = new CardNumberAllocator(cardRepository, "400000", BLOCK_SIZE);
+
+        Assertions.assertThrows(IllegalStateException.class, allocator::next);
+        Assertions.assertThrows(IllegalStateException.class, allocator::next);
+        verify(cardRepository, never()).nextCardNumberBlock();
+    }
+
+    @Test
+    void luhnDigit_ShouldMatchKnownNumber() {
+        Assertions.assertEquals(3, CardNumberAllocator.luhnDigit("7992739871"));
+        Assertions.assertTrue(isLuhnValid("4111111111111111"));
+    }
+
+    private static boolean isLuhnValid(String number) {
+        int sum = 0;
+        for (int i = 0; i < number.length(); i++) {
+            int digit = number.charAt(number.length() - 1 - i) - '0';
+            if (i % 2 == 1) {
+                digit = digit * 2 > 9 ? digit * 2 - 9 : digit * 2;
+            }
+            sum += digit;
+        }
+        return sum % 10 == 0;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Тестирование генератора UUID версии 7
+ *
+ * @author Andrei Bronskijj, 2025
+ * @version 0.0.1
+ */
+public class UuidV7GeneratorTest {
+
+    @Test
+    void next_ShouldEncodeVersionVariantAndTime() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        long millis = uuid.getMostSignificantBits() >>> 16;
+        Assertions.assertEquals(7, uuid.version());
+        Assertions.assertEquals(2, uuid.variant());
+        Assertions.assertTrue(millis >= before && millis <= after + 1, uuid.toString());
+    }
+
+    @Test
+    void next_ShouldBeStrictlyIncreasing_WithinOneMillisecond() {
+        UUID previous = UuidV7Generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7Generator.next();
+            Assertions.assertTrue(previous.toString().compareTo(next.toString()) < 0, previous + " " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    void next_ShouldBeUnique_AcrossThreads() throws Exception {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    ids.add(UuidV7Generator.next());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(400_000, ids.size());
+    }
+}
@@ -0,0 +1,85 @@
+-- Схема для тестов на H2, повторяет changeset'ы из db/migration/scripts
+
+DROP TABLE IF EXISTS refresh_tokens;
+DROP TABLE IF EXISTS idempotency_keys;
+DROP TABLE IF EXISTS card_transactions;
+DROP SEQUENCE IF EXISTS card_transactions_seq;
+DROP SEQUENCE IF EXISTS card_number_seq;
+DROP TABLE IF EXISTS cards;
+DROP TABLE IF EXISTS users;
+
+CREATE TABLE users
+(
+    id       BIGSERIAL PRIMARY KEY,
+    username VARCHAR(64)  NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL UNIQUE,
+    role     VARCHAR(16)  NOT NULL,
+    enabled  BOOLEAN      NOT NULL DEFAULT true
+);
+
+CREATE TABLE cards
+(
+    card_id         uuid DEFAULT random_uuid() PRIMARY KEY,
+    card_number     VARCHAR(255) NOT NULL,
+    card_last4      VARCHAR(4),
+    card_number_hash VARCHAR(64),
+    card_number_hash_skipped BOOLEAN NOT NULL DEFAULT FALSE,
+    owner_id        BIGINT      NOT NULL,
+    expiration_date DATE        NOT NULL,
+    status          VARCHAR(16) NOT NULL,
+    balance         NUMERIC check (balance >= 0),
+    FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE ON UPDATE CASCADE
+);
+
+CREATE UNIQUE INDEX cards_card_number_hash_idx ON cards (card_number_hash);
+CREATE INDEX cards_owner_id_card_id_idx ON cards (owner_id, card_id);
+CREATE INDEX cards_status_card_id_idx ON cards (status, card_id);
+CREATE INDEX cards_expiration_date_idx ON cards (expiration_date);
+CREATE INDEX cards_balance_idx ON cards (balance);
+-- H2 не поддерживает частичные индексы, вместо cards_active_expiration_date_idx - индекс по обоим столбцам
+CREATE INDEX cards_active_expiration_date_idx ON cards (status, expiration_date);
+
+CREATE SEQUENCE card_transactions_seq INCREMENT BY 50;
+
+CREATE TABLE card_transactions
+(
+    id          BIGINT DEFAULT nextval('card_transactions_seq') PRIMARY KEY,
+    transfer_id uuid        NOT NULL,
+    card_id     uuid        NOT NULL,
+    type        VARCHAR(16) NOT NULL,
+    amount      NUMERIC     NOT NULL,
+    created_at  TIMESTAMP   NOT NULL DEFAULT now(),
+    FOREIGN KEY (card_id) REFERENCES cards (card_id) ON DELETE RESTRICT
+);
+
+CREATE INDEX card_transactions_card_id_idx ON card_transactions (card_id);
+
+CREATE TABLE idempotency_keys
+(
+    username        VARCHAR(64)  NOT NULL,
+    idempotency_key VARCHAR(64)  NOT NULL,
+    fingerprint     VARCHAR(255) NOT NULL,
+    created_at      TIMESTAMP    NOT NULL,
+    expires_at      TIMESTAMP    NOT NULL,
+    PRIMARY KEY (username, idempotency_key)
+);
+
+CREATE INDEX idempotency_keys_expires_at_idx ON idempotency_keys (expires_at);
+
+CREATE SEQUENCE card_number_seq START WITH 0 MINVALUE 0 INCREMENT BY 1000;
+
+CREATE TABLE refresh_tokens
+(
+    id         BIGSERIAL PRIMARY KEY,
+    token_hash VARCHAR(64) NOT NULL UNIQUE,
+    family_id  uuid        NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    created_at TIMESTAMP   NOT NULL,
+    expires_at TIMESTAMP   NOT NULL,
+    used_at    TIMESTAMP,
+    revoked    BOOLEAN     NOT NULL DEFAULT false,
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX refresh_tokens_family_id_idx ON refresh_tokens (family_id);
+CREATE INDEX refresh_tokens_expires_at_idx ON refresh_tokens (expires_at);